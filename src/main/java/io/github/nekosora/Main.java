@@ -4,12 +4,17 @@ import io.github.nekosora.api.achievement.Achievement;
 import io.github.nekosora.api.achievement.AchievementAttribute;
 import io.github.nekosora.api.achievement.AchievementFile;
 import io.github.nekosora.api.achievement.AchievementManager;
+import io.github.nekosora.api.achievement.criteria.CriteriaEngine;
 import io.github.nekosora.api.file.widgets.FileSwitch;
 import io.github.nekosora.api.sound.Sound;
+import io.github.nekosora.api.sound.SoundBank;
 import io.github.nekosora.api.sound.SoundEngine;
+import io.github.nekosora.api.sound.Sounds;
 import io.github.nekosora.api.story.node.NodeIDs;
 import io.github.nekosora.api.story.node.StoryNode;
 import io.github.nekosora.api.story.node.StoryNodeRegistry;
+import io.github.nekosora.api.story.runtime.StoryRuntime;
+import io.github.nekosora.api.story.save.StorySaveManager;
 import io.github.nekosora.settings.GameSettings;
 import io.github.nekosora.utils.*;
 import org.slf4j.Logger;
@@ -17,6 +22,7 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.*;
 import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,10 +33,14 @@ public class Main {
         try {
             log.info("FileXE is starting...");
 
+            // 预加载常用音效，首次播放无需解码
+            SoundBank.preload(Sounds.ACHIEVEMENT_COMPLETED);
+
             AchievementManager.registerAchievement(new Achievement(Namespace.fromString("test:hello"), "TestingHello", "Hello World!", AchievementAttribute.Rare));
             AchievementManager.registerAchievement(new Achievement(Namespace.fromString("test:test1"), "TestingHello", "Hello World!", AchievementAttribute.Hidden));
 
             AchievementManager.load(GameSettings.achievementSaveFile);
+            CriteriaEngine.start();
             System.out.println(AchievementManager.getCompletedAchievements());
 
             if (!GameMenuUtils.initializeGameMenu(GameSettings.mainDir)) return;
@@ -47,18 +57,28 @@ public class Main {
             }, new File(GameSettings.mainDir, "ExitGame.off"));
             exitGame.register();
 
+            // 剧情图必须在单人游戏开关可以触发之前编译完成
+            StoryUtils.init();
+
             FileSwitch singleplayer = new FileSwitch((b) -> {
                 if (b) {
                     GameMenuUtils.cleanupGameMenu(GameSettings.mainDir);
-                    StoryNodeRegistry.ROOT.execute(); // 开始单人剧情
+                    // 有存档时从存档的节点继续，否则开始单人剧情
+                    // 恢复存档和剧情都在剧情线程上执行，不阻塞文件事件分发
+                    StoryRuntime.startOrResume(StoryNodeRegistry.ROOT, () -> {
+                        try {
+                            return StorySaveManager.restore(StoryNodeRegistry.getGraph());
+                        } catch (IOException e) {
+                            log.error("Failed to restore story save: {}", e.getMessage());
+                            return null;
+                        }
+                    });
                 } else {
                     log.error("cond error");
                 }
             }, new File(new File(GameSettings.mainDir, "Play"), "Singleplayer.off"));
             singleplayer.register();
 
-            StoryUtils.init();
-
             AchievementManager.achievementComplete(Namespace.fromString("test:test1"));
 
             while (true) {
@@ -15,7 +15,7 @@ public class Achievement {
     private LocalDateTime unlockTime;
 
     public Achievement(Namespace namespace, String name, String description, AchievementAttribute... attributes) {
-        this.namespace = namespace;
+        this.namespace = namespace.intern();
         this.name = name;
         this.description = description;
         this.achievementAttribute = attributes;
@@ -25,7 +25,7 @@ public class Achievement {
 
     public Achievement(Namespace namespace, String name, String description,
                        Sound onCompleteSound, AchievementAttribute... attributes) {
-        this.namespace = namespace;
+        this.namespace = namespace.intern();
         this.name = name;
         this.description = description;
         this.onCompleteSound = onCompleteSound;
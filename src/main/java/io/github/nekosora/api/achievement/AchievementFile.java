@@ -1,141 +1,309 @@
 package io.github.nekosora.api.achievement;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import io.github.nekosora.utils.Namespace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
 
 public class AchievementFile {
     private static final Logger log = LoggerFactory.getLogger(AchievementFile.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
+    // 文件末尾的校验尾："\n#crc32c=xxxxxxxx\n"（固定 18 字节）
+    private static final String FOOTER_PREFIX = "\n#crc32c=";
+    private static final String FOOTER_FORMAT = FOOTER_PREFIX + "%08x\n";
+    private static final int FOOTER_LENGTH = FOOTER_PREFIX.length() + 9;
+
     private final File file;
     private final List<Achievement> achievements;
-    private final Gson gson;
+    // read() 读取到但尚未生成对象的记录
+    private AchievementTable pending;
 
     public AchievementFile(File file) {
         this.file = file;
         this.achievements = new ArrayList<>();
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
     }
 
     public void addAchievement(Achievement achievement) {
+        materializePending();
         achievements.add(achievement);
     }
 
     public void addAchievement(Achievement... achievements) {
+        materializePending();
         Collections.addAll(this.achievements, achievements);
     }
 
-    public void save() {
-        try (FileWriter writer = new FileWriter(file)) {
-            JsonObject root = new JsonObject();
-            JsonArray achievementsArray = new JsonArray();
+    /**
+     * 流式写入临时文件，追加校验尾后原子替换原文件
+     * 写入过程中崩溃只会留下临时文件，原文件保持完整
+     * 每次保存使用独立的临时文件，同时进行的两次保存不会互相覆盖
+     * @throws IOException 写入或替换失败（原文件保持不变）
+     */
+    public void save() throws IOException {
+        materializePending();
+        File parent = file.getAbsoluteFile().getParentFile();
+        File tempFile = Files.createTempFile(parent.toPath(), file.getName() + ".", ".tmp").toFile();
+
+        try {
+            try (FileOutputStream out = new FileOutputStream(tempFile)) {
+                CheckedOutputStream checked = new CheckedOutputStream(out, new CRC32C());
+                JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(checked, StandardCharsets.UTF_8)));
+                writer.setIndent("  ");
 
-            for (Achievement achievement : achievements) {
-                achievementsArray.add(serializeAchievement(achievement));
+                writer.beginObject();
+                writer.name("achievements");
+                writer.beginArray();
+                for (Achievement achievement : achievements) {
+                    writeAchievement(writer, achievement);
+                }
+                writer.endArray();
+                writer.endObject();
+                writer.flush();
+
+                // 校验尾不计入校验和
+                out.write(String.format(FOOTER_FORMAT, checked.getChecksum().getValue()).getBytes(StandardCharsets.US_ASCII));
+                out.getFD().sync();
             }
 
-            root.add("achievements", achievementsArray);
-            gson.toJson(root, writer);
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
-            throw new RuntimeException("Failed to save achievement file", e);
+            tempFile.delete();
+            throw e;
         }
     }
 
-    public static AchievementFile read(File file) {
+    /**
+     * 读取存档，成就对象在第一次访问时才生成
+     * @throws IOException 读取失败或文件已损坏（校验和不匹配、JSON 格式错误）
+     */
+    public static AchievementFile read(File file) throws IOException {
         AchievementFile achievementFile = new AchievementFile(file);
+        achievementFile.pending = readTable(file);
+        return achievementFile;
+    }
+
+    /**
+     * 流式读取存档，只解码 (命名空间, 解锁时间)，不生成 Achievement 对象
+     * @throws IOException 读取失败或文件已损坏（校验和不匹配、JSON 格式错误）
+     */
+    public static AchievementTable readTable(File file) throws IOException {
+        AchievementTable table = new AchievementTable();
 
-        try (FileReader reader = new FileReader(file)) {
-            JsonObject root = achievementFile.gson.fromJson(reader, JsonObject.class);
-            if (root != null && root.has("achievements")) {
-                JsonArray achievementsArray = root.getAsJsonArray("achievements");
+        try {
+            long payloadLength = verifyChecksum(file);
+            if (payloadLength == 0) {
+                return table;
+            }
 
-                for (JsonElement element : achievementsArray) {
-                    JsonObject achievementJson = element.getAsJsonObject();
-                    Achievement achievement = achievementFile.deserializeAchievement(achievementJson);
-                    if (achievement != null) {
-                        achievementFile.addAchievement(achievement);
+            try (JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(
+                    new LimitedInputStream(new FileInputStream(file), payloadLength), StandardCharsets.UTF_8)))) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (!reader.nextName().equals("achievements")) {
+                        reader.skipValue();
+                        continue;
                     }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        readEntry(reader, table);
+                    }
+                    reader.endArray();
                 }
+                reader.endObject();
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read achievement file", e);
+        } catch (IllegalStateException e) {
+            throw new IOException("Malformed achievement file " + file.getName(), e);
         }
 
-        return achievementFile;
+        return table;
     }
 
-    private JsonObject serializeAchievement(Achievement achievement) {
-        JsonObject json = new JsonObject();
+    /**
+     * 把损坏的存档改名为 "原文件名.corrupt-时间戳" 保留下来，原位置空出来给新的快照
+     * @return 改名后的文件
+     */
+    public static File moveAside(File file) throws IOException {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File corrupt = new File(file.getPath() + ".corrupt-" + timestamp);
+        Files.move(file.toPath(), corrupt.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return corrupt;
+    }
 
-        // 只保存命名空间和解锁时间
-        json.addProperty("namespace", achievement.getNamespace().toString());
+    private static void readEntry(JsonReader reader, AchievementTable table) throws IOException {
+        String namespaceString = null;
+        String unlockTimeString = null;
 
-        // 序列化解锁时间
-        if (achievement.getUnlockTime() != null) {
-            json.addProperty("unlockTime", achievement.getUnlockTime().format(DATE_FORMATTER));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "namespace" -> namespaceString = reader.nextString();
+                case "unlockTime" -> unlockTimeString = reader.nextString();
+                default -> reader.skipValue();
+            }
         }
+        reader.endObject();
 
-        return json;
+        if (namespaceString == null) {
+            log.warn("Achievement entry without namespace, skipping");
+            return;
+        }
+        try {
+            // 只查找已注册的命名空间，存档中的未知字符串不进入实例池
+            Namespace namespace = Namespace.lookup(namespaceString);
+            if (namespace == null) {
+                log.warn("No registered achievement found for namespace: {}, skipping", namespaceString);
+                return;
+            }
+            LocalDateTime unlockTime = unlockTimeString != null ? LocalDateTime.parse(unlockTimeString, DATE_FORMATTER) : null;
+            table.add(namespace, unlockTime);
+        } catch (Exception e) {
+            log.error("Failed to deserialize achievement: {}", namespaceString, e);
+        }
     }
 
-    private Achievement deserializeAchievement(JsonObject json) {
-        try {
-            // 解析命名空间
-            Namespace namespace = Namespace.fromString(json.get("namespace").getAsString());
-
-            // 从已注册的成就中获取模板
-            Achievement template = AchievementManager.getAchievement(namespace);
-            if (template == null) {
-                log.warn("No registered achievement found for namespace: {}, skipping", namespace);
-                return null;
+    /**
+     * 把读取到的记录生成 Achievement 对象（跳过未注册的成就）
+     */
+    private void materializePending() {
+        AchievementTable table = pending;
+        if (table == null) {
+            return;
+        }
+        pending = null;
+        for (int i = 0; i < table.size(); i++) {
+            Achievement achievement = table.materialize(i);
+            if (achievement != null) {
+                achievements.add(achievement);
+            } else {
+                log.warn("No registered achievement found for namespace: {}, skipping", table.getNamespace(i));
             }
+        }
+    }
 
-            // 创建已完成成就的副本
-            Achievement achievement = new Achievement(
-                    namespace,
-                    template.getName(),
-                    template.getDescription(),
-                    template.getOnCompleteSound(),
-                    template.getAchievementAttribute()
-            );
-
-            // 设置解锁时间
-            if (json.has("unlockTime")) {
-                String unlockTimeStr = json.get("unlockTime").getAsString();
-                LocalDateTime unlockTime = LocalDateTime.parse(unlockTimeStr, DATE_FORMATTER);
-                achievement.setUnlockTime(unlockTime);
+    /**
+     * 校验文件末尾的 CRC32C
+     * @return JSON 部分的字节数（没有校验尾的旧文件返回整个文件长度）
+     * @throws IOException 校验和不匹配
+     */
+    private static long verifyChecksum(File file) throws IOException {
+        long length = file.length();
+        if (length < FOOTER_LENGTH) {
+            return length;
+        }
+
+        byte[] footer = new byte[FOOTER_LENGTH];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(length - FOOTER_LENGTH);
+            raf.readFully(footer);
+        }
+        String footerText = new String(footer, StandardCharsets.US_ASCII);
+        if (!footerText.startsWith(FOOTER_PREFIX) || footerText.charAt(FOOTER_LENGTH - 1) != '\n') {
+            log.warn("Achievement file {} has no checksum footer, reading as legacy file", file.getName());
+            return length;
+        }
+
+        long expected;
+        try {
+            expected = Long.parseLong(footerText.substring(FOOTER_PREFIX.length(), FOOTER_LENGTH - 1), 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed checksum footer in " + file.getName());
+        }
+
+        long payloadLength = length - FOOTER_LENGTH;
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new LimitedInputStream(new FileInputStream(file), payloadLength)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
             }
+        }
+        if (crc.getValue() != expected) {
+            throw new IOException(String.format("Checksum mismatch in %s (expected %08x, got %08x)",
+                    file.getName(), expected, crc.getValue()));
+        }
+        return payloadLength;
+    }
 
-            return achievement;
+    private static void writeAchievement(JsonWriter writer, Achievement achievement) throws IOException {
+        writer.beginObject();
 
-        } catch (Exception e) {
-            log.error("Failed to deserialize achievement: {}", json, e);
-            return null;
+        // 只保存命名空间和解锁时间
+        writer.name("namespace").value(achievement.getNamespace().toString());
+        if (achievement.getUnlockTime() != null) {
+            writer.name("unlockTime").value(achievement.getUnlockTime().format(DATE_FORMATTER));
         }
+
+        writer.endObject();
     }
 
     public List<Achievement> getAchievements() {
+        materializePending();
         return Collections.unmodifiableList(achievements);
     }
 
     public void clear() {
+        pending = null;
         achievements.clear();
     }
 
     public boolean removeAchievement(Achievement achievement) {
+        materializePending();
         return achievements.remove(achievement);
     }
-}
\ No newline at end of file
+
+    /**
+     * 只读取前 limit 字节（跳过校验尾）
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package io.github.nekosora.api.achievement;
+
+import io.github.nekosora.utils.Namespace;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 成就的稠密索引：每个已注册的成就分配一个从 0 开始的槽位
+ * 完成状态和解锁时间合并保存在分段的 AtomicLongArray 中（0 表示未完成），完成操作只是一次 CAS，不加锁；
+ * 按解锁时间排序的槽位数组在读取时才合并新完成的槽位，进度和数量查询不需要复制或排序
+ */
+class AchievementIndex {
+    // 未完成
+    private static final long NOT_COMPLETED = 0L;
+    // 已完成但没有解锁时间（排在最后）
+    private static final long NO_TIME = Long.MAX_VALUE;
+
+    // 分段存储，扩容时只复制段的引用，CAS 不会落在旧数组上
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private volatile int[] slotByNamespaceId = new int[64];
+    private volatile Achievement[] templates = new Achievement[64];
+    private volatile AtomicLongArray[] unlockChunks = {new AtomicLongArray(CHUNK_SIZE)};
+    private volatile int size = 0;
+    private final AtomicInteger completedCount = new AtomicInteger();
+
+    // 已完成但还没合并进 timeOrder 的槽位
+    private final ConcurrentLinkedQueue<Integer> pendingOrder = new ConcurrentLinkedQueue<>();
+    // 以下字段由 this 保护
+    private Achievement[] completedViews = new Achievement[64];
+    private int[] timeOrder = new int[64];
+    private long[] orderKeys = new long[64]; // timeOrder 中每个位置的解锁时间，用于二分查找
+    private int orderedCount = 0;
+
+    AchievementIndex() {
+        Arrays.fill(slotByNamespaceId, -1);
+    }
+
+    /**
+     * 注册成就（重复注册时替换模板）
+     * @return 槽位
+     */
+    synchronized int register(Achievement achievement) {
+        int namespaceId = achievement.getNamespace().id();
+        int[] slots = slotByNamespaceId;
+        if (namespaceId >= slots.length) {
+            int oldLength = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(namespaceId + 1, oldLength * 2));
+            Arrays.fill(slots, oldLength, slots.length, -1);
+        }
+
+        Achievement[] currentTemplates = templates;
+        int slot = slots[namespaceId];
+        if (slot < 0) {
+            slot = size;
+            if (slot == currentTemplates.length) {
+                int capacity = currentTemplates.length * 2;
+                currentTemplates = Arrays.copyOf(currentTemplates, capacity);
+                completedViews = Arrays.copyOf(completedViews, capacity);
+                timeOrder = Arrays.copyOf(timeOrder, capacity);
+                orderKeys = Arrays.copyOf(orderKeys, capacity);
+            }
+            AtomicLongArray[] chunks = unlockChunks;
+            if ((slot >> CHUNK_BITS) == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length + 1);
+                chunks[chunks.length - 1] = new AtomicLongArray(CHUNK_SIZE);
+                unlockChunks = chunks;
+            }
+            slots[namespaceId] = slot;
+        }
+        currentTemplates[slot] = achievement;
+        completedViews[slot] = null;
+
+        // 先发布数组，最后发布 size / 映射
+        templates = currentTemplates;
+        if (slot == size) {
+            size = slot + 1;
+        }
+        slotByNamespaceId = slots;
+        return slot;
+    }
+
+    /**
+     * @return 槽位，未注册时返回 -1
+     */
+    int slotOf(Namespace namespace) {
+        // 只查找，不把查询过的命名空间加入实例池；不存在的实例一定没有注册
+        Namespace interned = namespace.lookup();
+        if (interned == null) {
+            return -1;
+        }
+        int namespaceId = interned.id();
+        int[] slots = slotByNamespaceId;
+        return namespaceId < slots.length ? slots[namespaceId] : -1;
+    }
+
+    Achievement template(int slot) {
+        return templates[slot];
+    }
+
+    /**
+     * 标记为已完成（无锁，一次 CAS）
+     * @return 之前未完成、本次完成成功时返回 true
+     */
+    boolean complete(int slot, LocalDateTime unlockTime) {
+        AtomicLongArray chunk = unlockChunks[slot >> CHUNK_BITS];
+        if (!chunk.compareAndSet(slot & (CHUNK_SIZE - 1), NOT_COMPLETED, toNanos(unlockTime))) {
+            return false;
+        }
+        // 先入队再计数：列表视图看到的数量不会超过能合并出的槽位
+        pendingOrder.add(slot);
+        completedCount.incrementAndGet();
+        return true;
+    }
+
+    boolean isCompleted(int slot) {
+        return unlockState(slot) != NOT_COMPLETED;
+    }
+
+    LocalDateTime unlockTime(int slot) {
+        long state = unlockState(slot);
+        return state != NOT_COMPLETED ? fromNanos(state) : null;
+    }
+
+    private long unlockState(int slot) {
+        return unlockChunks[slot >> CHUNK_BITS].get(slot & (CHUNK_SIZE - 1));
+    }
+
+    /**
+     * 已完成成就的对象（第一次访问时生成，之后复用）
+     * @return 成就对象，未完成时返回 null
+     */
+    synchronized Achievement completedView(int slot) {
+        long state = unlockState(slot);
+        if (state == NOT_COMPLETED) {
+            return null;
+        }
+        Achievement view = completedViews[slot];
+        if (view == null) {
+            Achievement template = templates[slot];
+            view = new Achievement(
+                    template.getNamespace(),
+                    template.getName(),
+                    template.getDescription(),
+                    template.getOnCompleteSound(),
+                    template.getAchievementAttribute()
+            );
+            view.setUnlockTime(fromNanos(state));
+            completedViews[slot] = view;
+        }
+        return view;
+    }
+
+    /**
+     * 按解锁时间排序的第 position 个已完成成就的槽位
+     */
+    synchronized int completedSlotByTime(int position) {
+        mergePending();
+        if (position < 0 || position >= orderedCount) {
+            throw new IndexOutOfBoundsException("Index " + position + " out of bounds for size " + orderedCount);
+        }
+        return timeOrder[position];
+    }
+
+    /**
+     * 把新完成的槽位合并进 timeOrder
+     * 通常按时间顺序完成，直接追加到末尾；否则二分查找插入位置
+     */
+    private void mergePending() {
+        Integer pending;
+        while ((pending = pendingOrder.poll()) != null) {
+            int slot = pending;
+            long key = unlockState(slot);
+            if (key == NOT_COMPLETED) {
+                // 已被 clearCompleted 清除
+                continue;
+            }
+
+            int position = orderedCount;
+            if (position > 0 && orderKeys[position - 1] > key) {
+                int low = 0;
+                int high = orderedCount;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (orderKeys[mid] <= key) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                position = low;
+                System.arraycopy(timeOrder, position, timeOrder, position + 1, orderedCount - position);
+                System.arraycopy(orderKeys, position, orderKeys, position + 1, orderedCount - position);
+            }
+            timeOrder[position] = slot;
+            orderKeys[position] = key;
+            orderedCount++;
+        }
+    }
+
+    /**
+     * 按解锁时间排序的全部已完成成就（在锁内一次性复制，不会看到一半的 clearCompleted）
+     */
+    synchronized List<Achievement> completedByTimeCopy() {
+        mergePending();
+        List<Achievement> copy = new ArrayList<>(orderedCount);
+        for (int position = 0; position < orderedCount; position++) {
+            copy.add(completedView(timeOrder[position]));
+        }
+        return copy;
+    }
+
+    int completedCount() {
+        return completedCount.get();
+    }
+
+    /**
+     * 按时间排序的列表的长度（先合并新完成的槽位）
+     */
+    synchronized int orderedCount() {
+        mergePending();
+        return orderedCount;
+    }
+
+    int size() {
+        return size;
+    }
+
+    synchronized void clearCompleted() {
+        AtomicLongArray[] chunks = unlockChunks;
+        for (int slot = 0; slot < size; slot++) {
+            chunks[slot >> CHUNK_BITS].set(slot & (CHUNK_SIZE - 1), NOT_COMPLETED);
+        }
+        pendingOrder.clear();
+        Arrays.fill(completedViews, 0, size, null);
+        completedCount.set(0);
+        orderedCount = 0;
+    }
+
+    private static long toNanos(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        long nanos = time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+        // 0 用于表示未完成
+        return nanos == NOT_COMPLETED ? 1L : nanos;
+    }
+
+    private static LocalDateTime fromNanos(long nanos) {
+        if (nanos == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,252 @@
+package io.github.nekosora.api.achievement;
+
+import io.github.nekosora.utils.Namespace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 成就预写日志（追加写入）
+ * 每次完成成就追加一行 "namespace\tunlockTime"，批量 fsync；加载时在快照之后重放
+ * 日志过长时在后台压缩进快照文件
+ */
+public class AchievementJournal {
+    private static final Logger log = LoggerFactory.getLogger(AchievementJournal.class);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // 累计这么多条未同步的记录时立即 fsync，否则由后台定时同步
+    private static final int FSYNC_BATCH = 32;
+    private static final long FSYNC_INTERVAL_MILLIS = 200;
+    // 日志超过这么多条时在后台压缩
+    private static final int COMPACT_THRESHOLD = 256;
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final File rotatedFile; // 压缩过程中被轮换出去的旧日志
+    // 保证同一时间只有一次压缩（轮换、写快照、删除旧日志整个过程），与追加用的锁分开，写快照期间不阻塞追加
+    private final Object compactionLock = new Object();
+    private final ScheduledExecutorService background = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "AchievementJournal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FileChannel channel;
+    private int unsynced = 0;
+    private int records = 0;
+    private boolean compacting = false;
+
+    /**
+     * 一条日志记录
+     */
+    public record Entry(Namespace namespace, LocalDateTime unlockTime) {
+    }
+
+    public AchievementJournal(File snapshotFile) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = new File(snapshotFile.getPath() + ".journal");
+        this.rotatedFile = new File(snapshotFile.getPath() + ".journal.old");
+    }
+
+    /**
+     * 是否为该快照文件的日志
+     */
+    public boolean isFor(File snapshot) {
+        return snapshotFile.getAbsoluteFile().equals(snapshot.getAbsoluteFile());
+    }
+
+    /**
+     * 读取尚未压缩进快照的全部记录（先旧日志，后当前日志）
+     */
+    public List<Entry> replay() {
+        List<Entry> entries = new ArrayList<>();
+        readInto(rotatedFile, entries);
+        readInto(journalFile, entries);
+        return entries;
+    }
+
+    private void readInto(File file, List<Entry> entries) {
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0) {
+                    // 崩溃时写了一半的最后一行
+                    continue;
+                }
+                try {
+                    Namespace namespace = Namespace.lookup(line.substring(0, tab));
+                    if (namespace == null) {
+                        log.warn("Skipping achievement journal line for unregistered namespace: {}", line);
+                        continue;
+                    }
+                    entries.add(new Entry(namespace, LocalDateTime.parse(line.substring(tab + 1), DATE_FORMATTER)));
+                } catch (Exception e) {
+                    log.warn("Skipping corrupt achievement journal line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read achievement journal {}: {}", file.getAbsolutePath(), e.getMessage());
+        }
+    }
+
+    /**
+     * 打开日志准备追加，并启动后台定时同步
+     */
+    public synchronized void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        File parent = journalFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        channel = FileChannel.open(journalFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        records = replay().size();
+        background.scheduleWithFixedDelay(this::syncQuietly,
+                FSYNC_INTERVAL_MILLIS, FSYNC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 追加一条记录（O(1)，不重写快照）
+     */
+    public void append(Namespace namespace, LocalDateTime unlockTime) {
+        appendLines(namespace + "\t" + unlockTime.format(DATE_FORMATTER) + "\n", 1);
+    }
+
+    /**
+     * 一次写入追加一批记录
+     */
+    public void append(List<AchievementUnlockEvent> events) {
+        StringBuilder lines = new StringBuilder();
+        for (AchievementUnlockEvent event : events) {
+            lines.append(event.achievement().getNamespace()).append('\t')
+                    .append(event.unlockTime().format(DATE_FORMATTER)).append('\n');
+        }
+        appendLines(lines.toString(), events.size());
+    }
+
+    private synchronized void appendLines(String lines, int count) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            records += count;
+            unsynced += count;
+            if (unsynced >= FSYNC_BATCH) {
+                sync();
+            }
+        } catch (IOException e) {
+            log.error("Failed to append achievement journal: {}", e.getMessage());
+        }
+
+        if (records >= COMPACT_THRESHOLD && !compacting) {
+            compacting = true;
+            background.execute(this::compactQuietly);
+        }
+    }
+
+    private synchronized void sync() throws IOException {
+        if (channel != null && unsynced > 0) {
+            channel.force(false);
+            unsynced = 0;
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            log.error("Failed to sync achievement journal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把当前状态写入快照并清空日志
+     * 先轮换日志再写快照：写快照期间的新记录进入新日志，不会丢失
+     * 快照写入失败时保留轮换出去的旧日志，下次加载或压缩时仍会用到
+     * @throws IOException 轮换日志或写入快照失败
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            try {
+                synchronized (this) {
+                    compacting = true;
+                    if (channel != null) {
+                        channel.force(false);
+                        channel.close();
+                        channel = null;
+                    }
+                    if (journalFile.exists()) {
+                        if (rotatedFile.exists()) {
+                            // 上一次压缩没有完成：合并到轮换文件中
+                            Files.write(rotatedFile.toPath(), Files.readAllBytes(journalFile.toPath()), StandardOpenOption.APPEND);
+                            Files.delete(journalFile.toPath());
+                        } else {
+                            Files.move(journalFile.toPath(), rotatedFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                        }
+                    }
+                    channel = FileChannel.open(journalFile.toPath(),
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    records = 0;
+                    unsynced = 0;
+                }
+
+                AchievementManager.writeSnapshot(snapshotFile);
+                Files.deleteIfExists(rotatedFile.toPath());
+            } finally {
+                synchronized (this) {
+                    compacting = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * 后台压缩：失败只记录日志，之后的追加会再次触发
+     */
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            log.error("Failed to compact achievement journal: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void close() {
+        if (channel != null) {
+            syncQuietly();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.error("Failed to close achievement journal: {}", e.getMessage());
+            }
+            channel = null;
+        }
+        background.shutdown();
+    }
+}
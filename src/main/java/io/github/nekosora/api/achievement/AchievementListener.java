@@ -0,0 +1,8 @@
+package io.github.nekosora.api.achievement;
+
+/**
+ * 成就完成监听器，在后台的成就事件线程上调用
+ */
+public interface AchievementListener {
+    void onUnlock(AchievementUnlockEvent event);
+}
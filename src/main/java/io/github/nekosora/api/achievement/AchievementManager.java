@@ -1,8 +1,5 @@
 package io.github.nekosora.api.achievement;
 
-import io.github.nekosora.api.sound.Sound;
-import io.github.nekosora.api.sound.SoundEngine;
-import io.github.nekosora.api.sound.Sounds;
 import io.github.nekosora.utils.Namespace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,37 +12,41 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class AchievementManager {
     private static final Map<Namespace, Achievement> achievementMap = new ConcurrentHashMap<>();
-    private static final Map<Namespace, Achievement> completedAchievements = new ConcurrentHashMap<>();
+    // 完成状态保存在稠密索引中，下面两个是它的只读视图
+    private static final AchievementIndex index = new AchievementIndex();
+    private static final List<Achievement> completedByTime = new CompletedList();
+    private static final Map<Namespace, Achievement> completedAchievements = new CompletedMap();
     private static final Logger log = LoggerFactory.getLogger(AchievementManager.class);
+    // 预写日志：每批完成的成就立即追加，崩溃也不会丢失（在 load 时打开）
+    private static volatile AchievementJournal journal;
+    private static final UnlockPipeline pipeline = new UnlockPipeline();
 
     public static void registerAchievement(Achievement achievement) {
         achievementMap.put(achievement.getNamespace(), achievement);
+        index.register(achievement);
     }
 
+    /**
+     * 完成成就：状态切换是一次无锁 CAS，立即返回
+     * 音效、持久化、日志和监听器在后台管线中批量处理
+     */
     public static void achievementComplete(Namespace namespace) {
-        Achievement achievement = achievementMap.get(namespace);
-        if (achievement != null && !isCompleted(namespace)) {
-            // 创建已完成成就的副本并设置解锁时间
-            Achievement completedAchievement = createCompletedAchievement(achievement);
-
-            Sound customSound = completedAchievement.getOnCompleteSound();
-            SoundEngine.playSound(Objects.requireNonNullElse(customSound, Sounds.ACHIEVEMENT_COMPLETED));
-
-            completedAchievements.put(namespace, completedAchievement);
-            AchievementManager.log.info("Achievement completed: {} - {}", namespace, completedAchievement.getName());
+        int slot = index.slotOf(namespace);
+        if (slot < 0) {
+            return;
+        }
+        LocalDateTime unlockTime = LocalDateTime.now();
+        if (index.complete(slot, unlockTime)) {
+            pipeline.publish(new AchievementUnlockEvent(index.template(slot), unlockTime));
         }
     }
 
-    private static Achievement createCompletedAchievement(Achievement original) {
-        Achievement completed = new Achievement(
-                original.getNamespace(),
-                original.getName(),
-                original.getDescription(),
-                original.getOnCompleteSound(),
-                original.getAchievementAttribute()
-        );
-        completed.setUnlockTime(LocalDateTime.now());
-        return completed;
+    public static void addListener(AchievementListener listener) {
+        pipeline.addListener(listener);
+    }
+
+    public static void removeListener(AchievementListener listener) {
+        pipeline.removeListener(listener);
     }
 
     public static Achievement getAchievement(Namespace namespace) {
@@ -53,7 +54,8 @@ public class AchievementManager {
     }
 
     public static Achievement getCompletedAchievement(Namespace namespace) {
-        return completedAchievements.get(namespace);
+        int slot = index.slotOf(namespace);
+        return slot >= 0 ? index.completedView(slot) : null;
     }
 
     public static boolean hasAchievement(Namespace namespace) {
@@ -61,15 +63,30 @@ public class AchievementManager {
     }
 
     public static boolean isCompleted(Namespace namespace) {
-        return completedAchievements.containsKey(namespace);
+        int slot = index.slotOf(namespace);
+        return slot >= 0 && index.isCompleted(slot);
     }
 
     public static boolean isCompleted(Achievement achievement) {
-        return completedAchievements.containsKey(achievement.getNamespace());
+        return isCompleted(achievement.getNamespace());
     }
 
+    /**
+     * 已完成的成就（按解锁时间排序的副本，可以自由修改）
+     */
     public static List<Achievement> getCompletedAchievements() {
-        return new ArrayList<>(completedAchievements.values());
+        return index.completedByTimeCopy();
+    }
+
+    /**
+     * 已完成的成就（按解锁时间排序的只读视图，不复制，之后完成的成就也会出现在其中）
+     */
+    public static List<Achievement> getCompletedAchievementsView() {
+        return completedByTime;
+    }
+
+    public static int getCompletedCount() {
+        return index.completedCount();
     }
 
     public static List<Achievement> getAllAchievements() {
@@ -77,68 +94,180 @@ public class AchievementManager {
     }
 
     public static void save(File saveFile) throws IOException {
-        if (!saveFile.exists()) {
-            saveFile.getParentFile().mkdirs();
-            saveFile.createNewFile();
+        // 先把尚未处理的完成事件写入日志
+        pipeline.flush();
+        AchievementJournal currentJournal = journal;
+        if (currentJournal != null && currentJournal.isFor(saveFile)) {
+            // 写入快照并清空日志
+            currentJournal.compact();
+            return;
+        }
+        writeSnapshot(saveFile);
+    }
+
+    /**
+     * 把全部已完成的成就写入快照文件
+     */
+    static void writeSnapshot(File saveFile) throws IOException {
+        File parent = saveFile.getAbsoluteFile().getParentFile();
+        if (!parent.exists()) {
+            parent.mkdirs();
         }
 
         AchievementFile file = new AchievementFile(saveFile);
         // 只保存已完成的成就
-        for (Achievement achievement : completedAchievements.values()) {
+        for (Achievement achievement : completedByTime) {
             file.addAchievement(achievement);
         }
         file.save();
     }
 
+    /**
+     * 读取快照并重放日志，然后打开日志以便之后的成就立即持久化
+     * 快照损坏时不会中断启动：损坏的文件被改名保留，只从日志恢复尚未压缩的记录
+     */
     public static void load(File saveFile) throws IOException {
-        if (!saveFile.exists()) {
-            return;
+        index.clearCompleted();
+
+        if (saveFile.exists()) {
+            // 只解码记录表，直接写入索引
+            AchievementTable table = readSnapshot(saveFile);
+            for (int i = 0; i < table.size(); i++) {
+                Namespace namespace = table.getNamespace(i);
+                int slot = index.slotOf(namespace);
+                if (slot >= 0) {
+                    index.complete(slot, table.getUnlockTime(i));
+                } else {
+                    log.warn("Loaded achievement {} is not registered, skipping", namespace);
+                }
+            }
         }
 
-        AchievementFile file = AchievementFile.read(saveFile);
-        completedAchievements.clear();
-        for (Achievement achievement : file.getAchievements()) {
-            // 验证加载的成就是否在已注册的成就列表中
-            if (achievementMap.containsKey(achievement.getNamespace())) {
-                completedAchievements.put(achievement.getNamespace(), achievement);
-            } else {
-                log.warn("Loaded achievement {} is not registered, skipping", achievement.getNamespace());
+        AchievementJournal newJournal = new AchievementJournal(saveFile);
+        for (AchievementJournal.Entry entry : newJournal.replay()) {
+            int slot = index.slotOf(entry.namespace());
+            if (slot < 0) {
+                log.warn("Journaled achievement {} is not registered, skipping", entry.namespace());
+                continue;
             }
+            index.complete(slot, entry.unlockTime());
+        }
+
+        AchievementJournal oldJournal = journal;
+        if (oldJournal != null) {
+            oldJournal.close();
+        }
+        newJournal.open();
+        journal = newJournal;
+        pipeline.setJournal(newJournal);
+    }
+
+    private static AchievementTable readSnapshot(File saveFile) {
+        try {
+            return AchievementFile.readTable(saveFile);
+        } catch (IOException e) {
+            log.warn("Achievement file {} is unreadable ({}), recovering from journal only", saveFile.getAbsolutePath(), e.getMessage());
+            try {
+                File corrupt = AchievementFile.moveAside(saveFile);
+                log.warn("Corrupt achievement file kept as {}", corrupt.getAbsolutePath());
+            } catch (IOException moveError) {
+                log.error("Failed to move corrupt achievement file aside: {}", moveError.getMessage());
+            }
+            return new AchievementTable();
         }
     }
 
     public static void clearCompletedAchievements() {
-        completedAchievements.clear();
+        index.clearCompleted();
     }
 
     public static int getCompletionProgress() {
-        if (achievementMap.isEmpty()) {
+        int total = index.size();
+        if (total == 0) {
             return 0;
         }
-        return (completedAchievements.size() * 100) / achievementMap.size();
+        return (index.completedCount() * 100) / total;
     }
 
     public static Map<Namespace, Achievement> getAchievementMap() {
         return achievementMap;
     }
 
+    /**
+     * 已完成的成就（只读视图）
+     */
     public static Map<Namespace, Achievement> getCompletedAchievementMap() {
         return completedAchievements;
     }
 
     /**
-     * 获取按解锁时间排序的已完成成就列表
+     * 获取按解锁时间排序的已完成成就列表（副本，没有解锁时间的排在最后）
      */
     public static List<Achievement> getCompletedAchievementsSortedByTime() {
-        List<Achievement> sorted = new ArrayList<>(completedAchievements.values());
-        sorted.sort((a1, a2) -> {
-            LocalDateTime time1 = a1.getUnlockTime();
-            LocalDateTime time2 = a2.getUnlockTime();
-            if (time1 == null && time2 == null) return 0;
-            if (time1 == null) return 1;
-            if (time2 == null) return -1;
-            return time1.compareTo(time2);
-        });
-        return sorted;
-    }
-}
\ No newline at end of file
+        return index.completedByTimeCopy();
+    }
+
+    /**
+     * 按解锁时间排序的已完成成就列表视图
+     */
+    private static class CompletedList extends AbstractList<Achievement> implements RandomAccess {
+        @Override
+        public Achievement get(int position) {
+            return index.completedView(index.completedSlotByTime(position));
+        }
+
+        @Override
+        public int size() {
+            return index.orderedCount();
+        }
+    }
+
+    /**
+     * 已完成成就的 Map 视图，查询直接走索引
+     */
+    private static class CompletedMap extends AbstractMap<Namespace, Achievement> {
+        private final Set<Entry<Namespace, Achievement>> entrySet = new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Namespace, Achievement>> iterator() {
+                Iterator<Achievement> iterator = completedByTime.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<Namespace, Achievement> next() {
+                        Achievement achievement = iterator.next();
+                        return new SimpleImmutableEntry<>(achievement.getNamespace(), achievement);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return index.orderedCount();
+            }
+        };
+
+        @Override
+        public Set<Entry<Namespace, Achievement>> entrySet() {
+            return entrySet;
+        }
+
+        @Override
+        public Achievement get(Object key) {
+            return key instanceof Namespace namespace ? getCompletedAchievement(namespace) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Namespace namespace && isCompleted(namespace);
+        }
+
+        @Override
+        public int size() {
+            return index.orderedCount();
+        }
+    }
+}
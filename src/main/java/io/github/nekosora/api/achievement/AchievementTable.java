@@ -0,0 +1,101 @@
+package io.github.nekosora.api.achievement;
+
+import io.github.nekosora.utils.Namespace;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 存档中的成就记录表：只保存 (命名空间, 解锁时间)，用并列的基本类型数组存放
+ * 需要 Achievement 对象时才按已注册的模板生成
+ */
+public class AchievementTable {
+    // 没有解锁时间
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private Namespace[] namespaces;
+    private long[] unlockSeconds; // UTC 纪元秒
+    private int[] unlockNanos;
+    private int size = 0;
+
+    public AchievementTable() {
+        this(16);
+    }
+
+    public AchievementTable(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.namespaces = new Namespace[capacity];
+        this.unlockSeconds = new long[capacity];
+        this.unlockNanos = new int[capacity];
+    }
+
+    public void add(Namespace namespace, LocalDateTime unlockTime) {
+        if (size == namespaces.length) {
+            int capacity = namespaces.length * 2;
+            namespaces = Arrays.copyOf(namespaces, capacity);
+            unlockSeconds = Arrays.copyOf(unlockSeconds, capacity);
+            unlockNanos = Arrays.copyOf(unlockNanos, capacity);
+        }
+        namespaces[size] = namespace;
+        if (unlockTime != null) {
+            unlockSeconds[size] = unlockTime.toEpochSecond(ZoneOffset.UTC);
+            unlockNanos[size] = unlockTime.getNano();
+        } else {
+            unlockSeconds[size] = NO_TIME;
+            unlockNanos[size] = 0;
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Namespace getNamespace(int index) {
+        checkIndex(index);
+        return namespaces[index];
+    }
+
+    public boolean hasUnlockTime(int index) {
+        checkIndex(index);
+        return unlockSeconds[index] != NO_TIME;
+    }
+
+    /**
+     * @return 解锁时间，没有记录时返回 null
+     */
+    public LocalDateTime getUnlockTime(int index) {
+        checkIndex(index);
+        if (unlockSeconds[index] == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(unlockSeconds[index], unlockNanos[index], ZoneOffset.UTC);
+    }
+
+    /**
+     * 按已注册的模板生成该记录的 Achievement
+     * @return 成就对象，命名空间未注册时返回 null
+     */
+    public Achievement materialize(int index) {
+        Achievement template = AchievementManager.getAchievement(getNamespace(index));
+        if (template == null) {
+            return null;
+        }
+        Achievement achievement = new Achievement(
+                template.getNamespace(),
+                template.getName(),
+                template.getDescription(),
+                template.getOnCompleteSound(),
+                template.getAchievementAttribute()
+        );
+        achievement.setUnlockTime(getUnlockTime(index));
+        return achievement;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
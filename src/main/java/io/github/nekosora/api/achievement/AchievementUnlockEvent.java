@@ -0,0 +1,11 @@
+package io.github.nekosora.api.achievement;
+
+import java.time.LocalDateTime;
+
+/**
+ * 成就完成事件
+ * @param achievement 已完成的成就
+ * @param unlockTime 解锁时间
+ */
+public record AchievementUnlockEvent(Achievement achievement, LocalDateTime unlockTime) {
+}
@@ -0,0 +1,122 @@
+package io.github.nekosora.api.achievement;
+
+import io.github.nekosora.api.sound.Sound;
+import io.github.nekosora.api.sound.SoundEngine;
+import io.github.nekosora.api.sound.Sounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 成就完成的副作用管线
+ * 完成成就的线程只把事件放入队列就返回；后台线程等待一帧把同一时间段内的事件合并成一批，
+ * 每批只播放一次音效、只写一次日志，再依次通知监听器
+ */
+class UnlockPipeline {
+    private static final Logger log = LoggerFactory.getLogger(UnlockPipeline.class);
+
+    // 合并窗口（约一帧）
+    private static final long BATCH_WINDOW_MILLIS = 16;
+
+    private final LinkedBlockingQueue<AchievementUnlockEvent> queue = new LinkedBlockingQueue<>();
+    private final List<AchievementListener> listeners = new CopyOnWriteArrayList<>();
+    private final Object processLock = new Object();
+    private volatile AchievementJournal journal;
+
+    UnlockPipeline() {
+        Thread worker = new Thread(this::run, "AchievementUnlock");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void setJournal(AchievementJournal journal) {
+        this.journal = journal;
+    }
+
+    void addListener(AchievementListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(AchievementListener listener) {
+        listeners.remove(listener);
+    }
+
+    void publish(AchievementUnlockEvent event) {
+        queue.add(event);
+    }
+
+    /**
+     * 立即处理队列中剩余的事件（保存/退出前调用），不播放音效
+     */
+    void flush() {
+        synchronized (processLock) {
+            List<AchievementUnlockEvent> batch = new ArrayList<>();
+            queue.drainTo(batch);
+            process(batch, false);
+        }
+    }
+
+    private void run() {
+        List<AchievementUnlockEvent> batch = new ArrayList<>();
+        try {
+            while (true) {
+                AchievementUnlockEvent first = queue.take();
+                Thread.sleep(BATCH_WINDOW_MILLIS);
+
+                synchronized (processLock) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    process(batch, true);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(List<AchievementUnlockEvent> batch, boolean playSound) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        if (playSound) {
+            SoundEngine.playSound(soundFor(batch));
+        }
+
+        AchievementJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.append(batch);
+        }
+
+        for (AchievementUnlockEvent event : batch) {
+            Achievement achievement = event.achievement();
+            log.info("Achievement completed: {} - {}", achievement.getNamespace(), achievement.getName());
+            for (AchievementListener listener : listeners) {
+                try {
+                    listener.onUnlock(event);
+                } catch (Exception e) {
+                    log.error("Achievement listener failed for {}", achievement.getNamespace(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 一批只播放一个音效：全部使用同一个自定义音效时播放它，否则播放默认音效
+     */
+    private static Sound soundFor(List<AchievementUnlockEvent> batch) {
+        Sound sound = batch.get(0).achievement().getOnCompleteSound();
+        for (int i = 1; i < batch.size() && sound != null; i++) {
+            if (!sound.equals(batch.get(i).achievement().getOnCompleteSound())) {
+                sound = null;
+            }
+        }
+        return Objects.requireNonNullElse(sound, Sounds.ACHIEVEMENT_COMPLETED);
+    }
+}
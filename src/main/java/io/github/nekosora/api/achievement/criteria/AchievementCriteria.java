@@ -0,0 +1,49 @@
+package io.github.nekosora.api.achievement.criteria;
+
+import io.github.nekosora.utils.Namespace;
+
+import java.util.List;
+
+/**
+ * 成就的完成条件：满足任意一个（anyOf）或全部（allOf）触发条件时完成成就
+ */
+public final class AchievementCriteria {
+    // allOf 的进度用 long 位掩码记录
+    static final int MAX_TRIGGERS = 64;
+
+    private final Namespace achievement;
+    private final List<Trigger> triggers;
+    private final boolean requireAll;
+
+    private AchievementCriteria(Namespace achievement, List<Trigger> triggers, boolean requireAll) {
+        if (triggers.isEmpty()) {
+            throw new IllegalArgumentException("Criteria for " + achievement + " has no triggers");
+        }
+        if (triggers.size() > MAX_TRIGGERS) {
+            throw new IllegalArgumentException("Criteria for " + achievement + " has more than " + MAX_TRIGGERS + " triggers");
+        }
+        this.achievement = achievement.intern();
+        this.triggers = triggers;
+        this.requireAll = requireAll;
+    }
+
+    public static AchievementCriteria anyOf(Namespace achievement, Trigger... triggers) {
+        return new AchievementCriteria(achievement, List.of(triggers), false);
+    }
+
+    public static AchievementCriteria allOf(Namespace achievement, Trigger... triggers) {
+        return new AchievementCriteria(achievement, List.of(triggers), true);
+    }
+
+    public Namespace getAchievement() {
+        return achievement;
+    }
+
+    public List<Trigger> getTriggers() {
+        return triggers;
+    }
+
+    public boolean isRequireAll() {
+        return requireAll;
+    }
+}
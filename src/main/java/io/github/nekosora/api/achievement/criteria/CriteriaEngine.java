@@ -0,0 +1,266 @@
+package io.github.nekosora.api.achievement.criteria;
+
+import io.github.nekosora.api.achievement.AchievementManager;
+import io.github.nekosora.api.file.FileEventType;
+import io.github.nekosora.api.file.FileEvents;
+import io.github.nekosora.api.story.node.StoryNode;
+import io.github.nekosora.utils.Namespace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.*;
+
+/**
+ * 成就条件引擎
+ * 只向文件事件管线和剧情执行各订阅一次，事件到达时通过 "事件键 -> 关心它的条件" 索引增量求值，
+ * 不轮询，也不为每个成就单独创建 FileEventCatcher
+ * 注意：allOf 的部分进度和计数器只保存在内存中
+ */
+public class CriteriaEngine {
+    private static final Logger log = LoggerFactory.getLogger(CriteriaEngine.class);
+    private static final FileEventType[] CONCRETE_TYPES = {
+            FileEventType.CREATED, FileEventType.MODIFIED, FileEventType.DELETE_OR_MOVED, FileEventType.RENAMED
+    };
+
+    private static final Object lock = new Object();
+    private static final Map<FileKey, FileIndex> fileIndex = new HashMap<>();
+    private static final Map<String, List<Subscription>> storyIndex = new HashMap<>();
+    private static final Map<Namespace, Counter> counters = new HashMap<>();
+    private static boolean started = false;
+
+    /**
+     * 文件索引的键：目录 + 事件类型
+     */
+    private record FileKey(Path directory, FileEventType type) {
+    }
+
+    /**
+     * 同一个目录、同一种事件下的订阅：精确文件名用 Map 查找，glob 逐个匹配
+     */
+    private static class FileIndex {
+        final Map<String, List<Subscription>> exact = new HashMap<>();
+        final List<GlobSubscription> globs = new ArrayList<>();
+    }
+
+    private record GlobSubscription(PathMatcher matcher, Subscription subscription) {
+    }
+
+    /**
+     * 某个条件中的第 bit 个触发器
+     */
+    private record Subscription(Tracked tracked, int bit) {
+    }
+
+    /**
+     * 条件的求值状态
+     */
+    private static class Tracked {
+        final AchievementCriteria criteria;
+        final long required;
+        long satisfied = 0L;
+
+        Tracked(AchievementCriteria criteria) {
+            this.criteria = criteria;
+            int count = criteria.getTriggers().size();
+            this.required = count == AchievementCriteria.MAX_TRIGGERS ? -1L : (1L << count) - 1;
+        }
+    }
+
+    /**
+     * 计数器：阈值升序排列，next 指向下一个尚未达到的阈值
+     */
+    private static class Counter {
+        long value = 0L;
+        long[] thresholds = new long[0];
+        Subscription[] subscriptions = new Subscription[0];
+        int next = 0;
+
+        void add(long threshold, Subscription subscription) {
+            int position = next;
+            while (position < thresholds.length && thresholds[position] <= threshold) {
+                position++;
+            }
+            thresholds = insert(thresholds, position, threshold);
+            Subscription[] grown = new Subscription[subscriptions.length + 1];
+            System.arraycopy(subscriptions, 0, grown, 0, position);
+            grown[position] = subscription;
+            System.arraycopy(subscriptions, position, grown, position + 1, subscriptions.length - position);
+            subscriptions = grown;
+        }
+
+        private static long[] insert(long[] array, int position, long value) {
+            long[] grown = new long[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, position);
+            grown[position] = value;
+            System.arraycopy(array, position, grown, position + 1, array.length - position);
+            return grown;
+        }
+    }
+
+    /**
+     * 订阅文件事件和剧情执行（只执行一次）
+     */
+    public static void start() {
+        synchronized (lock) {
+            if (started) {
+                return;
+            }
+            started = true;
+        }
+        FileEvents.addListener(CriteriaEngine::onFileEvent);
+        StoryNode.addListener(node -> onStoryNode(node.getId()));
+    }
+
+    /**
+     * 注册成就条件，文件触发器所在的目录会被自动监听
+     */
+    public static void register(AchievementCriteria criteria) {
+        Tracked tracked = new Tracked(criteria);
+        List<Trigger> triggers = criteria.getTriggers();
+        Set<File> directories = new HashSet<>();
+        List<Namespace> reachedCounters = new ArrayList<>();
+
+        synchronized (lock) {
+            for (int bit = 0; bit < triggers.size(); bit++) {
+                Subscription subscription = new Subscription(tracked, bit);
+                switch (triggers.get(bit)) {
+                    case Trigger.FileTrigger file -> {
+                        indexFileTrigger(file, subscription);
+                        directories.add(file.directory());
+                    }
+                    case Trigger.StoryNodeTrigger story ->
+                            storyIndex.computeIfAbsent(story.nodeId(), k -> new ArrayList<>()).add(subscription);
+                    case Trigger.CounterTrigger counterTrigger -> {
+                        Counter counter = counters.computeIfAbsent(counterTrigger.counter(), k -> new Counter());
+                        counter.add(counterTrigger.threshold(), subscription);
+                        reachedCounters.add(counterTrigger.counter());
+                    }
+                }
+            }
+        }
+
+        for (File directory : directories) {
+            FileEvents.watchDirectory(directory);
+        }
+        // 计数器可能已经超过了新注册的阈值
+        for (Namespace counter : reachedCounters) {
+            increment(counter, 0L);
+        }
+    }
+
+    private static void indexFileTrigger(Trigger.FileTrigger trigger, Subscription subscription) {
+        FileEventType[] types = trigger.type() == FileEventType.ALL ? CONCRETE_TYPES : new FileEventType[]{trigger.type()};
+        Path directory = trigger.directory().toPath().toAbsolutePath().normalize();
+        String pattern = trigger.pattern();
+        boolean glob = pattern.chars().anyMatch(c -> "*?[{\\".indexOf(c) >= 0);
+        PathMatcher matcher = glob ? FileSystems.getDefault().getPathMatcher("glob:" + pattern) : null;
+
+        for (FileEventType type : types) {
+            FileIndex index = fileIndex.computeIfAbsent(new FileKey(directory, type), k -> new FileIndex());
+            if (glob) {
+                index.globs.add(new GlobSubscription(matcher, subscription));
+            } else {
+                index.exact.computeIfAbsent(pattern, k -> new ArrayList<>()).add(subscription);
+            }
+        }
+    }
+
+    /**
+     * 增加计数器
+     */
+    public static void increment(Namespace counterName, long delta) {
+        List<Subscription> fired = new ArrayList<>();
+        synchronized (lock) {
+            Counter counter = counters.get(counterName);
+            if (counter == null) {
+                // 第一次出现的计数器才规范化并登记
+                counter = new Counter();
+                counters.put(counterName.intern(), counter);
+            }
+            counter.value += delta;
+            while (counter.next < counter.thresholds.length && counter.thresholds[counter.next] <= counter.value) {
+                fired.add(counter.subscriptions[counter.next++]);
+            }
+        }
+        fire(fired);
+    }
+
+    public static long getCounter(Namespace counterName) {
+        synchronized (lock) {
+            Counter counter = counters.get(counterName);
+            return counter != null ? counter.value : 0L;
+        }
+    }
+
+    private static void onFileEvent(File file, FileEventType type) {
+        Path directory = file.toPath().toAbsolutePath().normalize().getParent();
+        String fileName = file.getName();
+        List<Subscription> fired = new ArrayList<>();
+
+        synchronized (lock) {
+            FileIndex index = fileIndex.get(new FileKey(directory, type));
+            if (index == null) {
+                return;
+            }
+            List<Subscription> exact = index.exact.get(fileName);
+            if (exact != null) {
+                fired.addAll(exact);
+            }
+            if (!index.globs.isEmpty()) {
+                Path namePath = Path.of(fileName);
+                for (GlobSubscription glob : index.globs) {
+                    if (glob.matcher().matches(namePath)) {
+                        fired.add(glob.subscription());
+                    }
+                }
+            }
+        }
+        fire(fired);
+    }
+
+    private static void onStoryNode(String nodeId) {
+        List<Subscription> fired;
+        synchronized (lock) {
+            List<Subscription> subscriptions = storyIndex.get(nodeId);
+            if (subscriptions == null) {
+                return;
+            }
+            fired = new ArrayList<>(subscriptions);
+        }
+        fire(fired);
+    }
+
+    /**
+     * 标记触发器已满足，条件满足时完成成就（在锁外调用 AchievementManager）
+     */
+    private static void fire(List<Subscription> fired) {
+        if (fired.isEmpty()) {
+            return;
+        }
+
+        List<Namespace> completed = new ArrayList<>();
+        synchronized (lock) {
+            for (Subscription subscription : fired) {
+                Tracked tracked = subscription.tracked();
+                long before = tracked.satisfied;
+                tracked.satisfied |= 1L << subscription.bit();
+                boolean done = !tracked.criteria.isRequireAll()
+                        || (before != tracked.required && tracked.satisfied == tracked.required);
+                if (done) {
+                    completed.add(tracked.criteria.getAchievement());
+                }
+            }
+        }
+
+        for (Namespace achievement : completed) {
+            if (!AchievementManager.isCompleted(achievement)) {
+                log.debug("Criteria satisfied for achievement {}", achievement);
+                AchievementManager.achievementComplete(achievement);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.nekosora.api.achievement.criteria;
+
+import io.github.nekosora.api.file.FileEventType;
+import io.github.nekosora.utils.Namespace;
+
+import java.io.File;
+
+/**
+ * 成就触发条件
+ */
+public sealed interface Trigger permits Trigger.FileTrigger, Trigger.StoryNodeTrigger, Trigger.CounterTrigger {
+
+    /**
+     * 目录中文件名匹配 pattern 的文件发生指定类型的事件
+     * @param pattern 文件名或 glob（如 "*.txt"）
+     * @param type 事件类型，ALL 表示任意事件
+     */
+    record FileTrigger(File directory, String pattern, FileEventType type) implements Trigger {
+    }
+
+    /**
+     * 执行到指定 ID 的剧情节点
+     */
+    record StoryNodeTrigger(String nodeId) implements Trigger {
+    }
+
+    /**
+     * 计数器达到阈值（计数器通过 CriteriaEngine.increment 增加）
+     */
+    record CounterTrigger(Namespace counter, long threshold) implements Trigger {
+    }
+
+    static Trigger file(File directory, String pattern, FileEventType type) {
+        return new FileTrigger(directory.toPath().toAbsolutePath().normalize().toFile(), pattern, type);
+    }
+
+    static Trigger storyNode(String nodeId) {
+        return new StoryNodeTrigger(nodeId);
+    }
+
+    static Trigger counter(Namespace counter, long threshold) {
+        return new CounterTrigger(counter.intern(), threshold);
+    }
+}
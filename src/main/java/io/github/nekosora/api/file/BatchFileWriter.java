@@ -0,0 +1,117 @@
+package io.github.nekosora.api.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量文件写入器
+ * 1. 先比较已有文件（大小和指纹都相同的跳过，不产生任何写入）
+ * 2. 所有需要写入的文件和新建的目录在动手之前统一登记到 SelfWriteRegistry
+ * 3. 文件在有界线程池上并行写入（杀毒软件扫描或慢盘上每次写入的延迟会被重叠掉）
+ */
+public final class BatchFileWriter {
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService pool = Executors.newFixedThreadPool(
+            Math.min(4, Math.max(2, Runtime.getRuntime().availableProcessors())), r -> {
+                Thread thread = new Thread(r, "BatchFileWriter-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private BatchFileWriter() {}
+
+    /**
+     * 写入一组文本文件（父目录不存在时自动创建）
+     * @return 实际写入的文件数量
+     * @throws IOException 任意一个文件写入失败时抛出，其它文件可能已经写入
+     */
+    public static int writeAll(Map<File, String> files) throws IOException {
+        // 1. 计算差异
+        List<File> targets = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        List<FileFingerprint> fingerprints = new ArrayList<>();
+        for (Map.Entry<File, String> entry : files.entrySet()) {
+            File file = entry.getKey();
+            byte[] bytes = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            FileFingerprint fingerprint = FileHasher.hash(bytes);
+            if (file.isFile() && file.length() == bytes.length && fingerprint.equals(FileHasher.hash(file))) {
+                continue;
+            }
+            targets.add(file);
+            texts.add(entry.getValue());
+            contents.add(bytes);
+            fingerprints.add(fingerprint);
+        }
+        if (targets.isEmpty()) {
+            return 0;
+        }
+
+        // 2. 预先登记所有写入，再创建缺失的目录
+        for (File target : targets) {
+            SelfWriteRegistry.begin(target);
+        }
+        try {
+            for (File target : targets) {
+                createDirectories(target.getParentFile());
+            }
+        } catch (IOException e) {
+            targets.forEach(SelfWriteRegistry::cancel);
+            throw e;
+        }
+
+        // 3. 并行写入
+        CompletableFuture<?>[] writes = new CompletableFuture<?>[targets.size()];
+        for (int i = 0; i < targets.size(); i++) {
+            File target = targets.get(i);
+            String text = texts.get(i);
+            byte[] bytes = contents.get(i);
+            FileFingerprint fingerprint = fingerprints.get(i);
+            writes[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    Files.write(target.toPath(), bytes);
+                } catch (IOException e) {
+                    SelfWriteRegistry.cancel(target);
+                    throw new UncheckedIOException(e);
+                }
+                SelfWriteRegistry.completeWrite(target, fingerprint, text);
+            }, pool);
+        }
+
+        try {
+            CompletableFuture.allOf(writes).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+        return targets.size();
+    }
+
+    /**
+     * 创建目录（包括缺失的上级目录），每一级新建的目录都登记为自身写入
+     */
+    private static void createDirectories(File dir) throws IOException {
+        if (dir == null || dir.isDirectory()) {
+            return;
+        }
+        createDirectories(dir.getParentFile());
+        SelfWriteRegistry.begin(dir);
+        if (!dir.mkdir() && !dir.isDirectory()) {
+            SelfWriteRegistry.cancel(dir);
+            throw new IOException("Error creating directory: " + dir.getAbsolutePath());
+        }
+    }
+}
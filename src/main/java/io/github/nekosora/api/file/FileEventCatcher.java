@@ -1,5 +1,6 @@
 package io.github.nekosora.api.file;
 
+import io.github.nekosora.settings.GameSettings;
 import io.github.nekosora.utils.CrashUtils;
 import io.github.nekosora.utils.GameUtils;
 
@@ -8,6 +9,12 @@ import java.io.IOException;
 import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 文件事件监听器
@@ -26,20 +33,29 @@ public class FileEventCatcher {
     private final File target;
     private final FileEventRunnable recall;
     private final FileEventType type;
+    private final FileEventPriority priority;
     private volatile boolean active = false;
     private volatile boolean autoFollowRename = true; // 自动跟踪重命名
 
-    // 文件内容缓存大小限制（10MB）
-    private static final long MAX_CACHE_SIZE = 10 * 1024 * 1024;
+    // 文件内容缓存大小限制（10MB），超过此大小的文件由 DirectoryWatcher 在 I/O 线程池上异步哈希
+    static final long MAX_CACHE_SIZE = 10 * 1024 * 1024;
 
     // 缓存文件内容用于 MODIFIED 事件（仅小文件）
     private volatile String lastContent = null;
-    private volatile String lastContentHash = null; // 内容哈希值
+    private volatile FileFingerprint lastFingerprint = null; // 内容指纹
 
     public FileEventCatcher(File target, FileEventRunnable recall, FileEventType type) {
+        this(target, recall, type, FileEventPriority.NORMAL);
+    }
+
+    /**
+     * @param priority 分发优先级，控件使用 HIGH 以免排在大量普通文件事件之后
+     */
+    public FileEventCatcher(File target, FileEventRunnable recall, FileEventType type, FileEventPriority priority) {
         this.target = target;
         this.recall = recall;
         this.type = type;
+        this.priority = priority;
     }
 
     /**
@@ -65,14 +81,22 @@ public class FileEventCatcher {
     private void initializeContentCache() {
         long fileSize = target.length();
         if (fileSize <= MAX_CACHE_SIZE) {
-            this.lastContent = readFileContent(target);
-            this.lastContentHash = calculateHash(this.lastContent);
+            cacheSmallFile();
         } else {
             this.lastContent = null;
-            this.lastContentHash = calculateFileHash(target);
+            this.lastFingerprint = FileHasher.hash(target);
         }
     }
 
+    /**
+     * 读取小文件，同时更新内容缓存和指纹（只读一次、只哈希一次）
+     */
+    private void cacheSmallFile() {
+        byte[] bytes = readFileBytes(target);
+        this.lastContent = bytes != null ? new String(bytes) : null;
+        this.lastFingerprint = FileHasher.hash(bytes);
+    }
+
     /**
      * 停止监听文件
      */
@@ -101,10 +125,24 @@ public class FileEventCatcher {
         return type == FileEventType.ALL || type == eventType;
     }
 
+    /**
+     * 游戏自身写入了目标文件：直接用已知内容更新缓存，不读取文件
+     */
+    void acceptSelfWrite(String content, FileFingerprint fingerprint) {
+        if (fingerprint == null) {
+            return;
+        }
+        lastContent = content;
+        lastFingerprint = fingerprint;
+    }
+
     /**
      * 触发回调 - MODIFIED 事件
+     * 所有回调都在所属目录的分发线程上按事件顺序执行
+     * @param fingerprint DirectoryWatcher 为这次修改算好的指纹（每次修改只哈希一次）
+     * @param content 小文件的内容（由 DirectoryWatcher 读取一次），大文件或读取失败时为 null
      */
-    void triggerModified() {
+    void triggerModified(FileFingerprint fingerprint, byte[] content) {
         if (!shouldHandle(FileEventType.MODIFIED)) {
             return;
         }
@@ -114,22 +152,14 @@ public class FileEventCatcher {
             String newContent = null;
             String oldContent = lastContent;
 
-            // 只读取小文件内容
-            if (fileSize <= MAX_CACHE_SIZE) {
-                newContent = readFileContent(target);
-                lastContent = newContent;
-            } else {
-                // 大文件不缓存旧内容
+            if (content != null) {
+                newContent = new String(content);
+            } else if (fileSize > MAX_CACHE_SIZE) {
+                // 大文件不缓存内容
                 oldContent = null;
-                newContent = null; // 或者可以返回部分内容
-            }
-
-            // 更新哈希
-            if (newContent != null) {
-                lastContentHash = calculateHash(newContent);
-            } else {
-                lastContentHash = calculateFileHash(target);
             }
+            lastContent = newContent;
+            lastFingerprint = fingerprint;
 
             Object[] data = new Object[]{target, FileEventType.MODIFIED, oldContent, newContent};
             recall.run(data);
@@ -140,8 +170,10 @@ public class FileEventCatcher {
 
     /**
      * 触发回调 - CREATED 事件
+     * @param fingerprint DirectoryWatcher 为新文件算好的指纹
+     * @param content 小文件的内容，大文件或读取失败时为 null
      */
-    void triggerCreated() {
+    void triggerCreated(FileFingerprint fingerprint, byte[] content) {
         if (!shouldHandle(FileEventType.CREATED)) {
             return;
         }
@@ -149,16 +181,12 @@ public class FileEventCatcher {
         try {
             long fileSize = target.exists() ? target.length() : 0L;
 
+            Object[] data = new Object[]{target, FileEventType.CREATED, fileSize};
+
             // 初始化内容缓存
-            if (fileSize <= MAX_CACHE_SIZE) {
-                lastContent = readFileContent(target);
-                lastContentHash = calculateHash(lastContent);
-            } else {
-                lastContent = null;
-                lastContentHash = calculateFileHash(target);
-            }
+            lastContent = content != null ? new String(content) : null;
+            lastFingerprint = fingerprint;
 
-            Object[] data = new Object[]{target, FileEventType.CREATED, fileSize};
             recall.run(data);
         } catch (Exception e) {
             CrashUtils.crash(e);
@@ -205,68 +233,18 @@ public class FileEventCatcher {
     /**
      * 读取文件内容
      */
-    private String readFileContent(File file) {
+    private byte[] readFileBytes(File file) {
         if (!file.exists() || !file.isFile()) {
             return null;
         }
 
         try {
-            return new String(Files.readAllBytes(file.toPath()));
+            return Files.readAllBytes(file.toPath());
         } catch (IOException e) {
             return null;
         }
     }
 
-    /**
-     * 计算字符串内容的哈希值
-     */
-    private String calculateHash(String content) {
-        if (content == null) {
-            return null;
-        }
-        try {
-            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(content.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            return bytesToHex(hash);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * 计算文件的哈希值（用于大文件）
-     */
-    private String calculateFileHash(File file) {
-        if (!file.exists() || !file.isFile()) {
-            return null;
-        }
-
-        try {
-            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-            try (java.io.FileInputStream fis = new java.io.FileInputStream(file)) {
-                byte[] buffer = new byte[8192];
-                int bytesRead;
-                while ((bytesRead = fis.read(buffer)) != -1) {
-                    md.update(buffer, 0, bytesRead);
-                }
-            }
-            return bytesToHex(md.digest());
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * 字节数组转十六进制字符串
-     */
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
-    }
-
     /**
      * 更新监听目标（用于重命名后的跟踪）
      */
@@ -276,8 +254,10 @@ public class FileEventCatcher {
             field.setAccessible(true);
             field.set(this, newTarget);
 
-            // 更新内容缓存
-            initializeContentCache();
+            // 更新内容缓存（重命名不改变内容，大文件沿用已有指纹，不在分发线程上重新哈希）
+            if (newTarget.length() <= MAX_CACHE_SIZE || lastFingerprint == null) {
+                initializeContentCache();
+            }
         } catch (Exception e) {
             System.err.println("Failed to update target: " + e.getMessage());
         }
@@ -291,6 +271,10 @@ public class FileEventCatcher {
         return type;
     }
 
+    public FileEventPriority getPriority() {
+        return priority;
+    }
+
     public boolean isActive() {
         return active;
     }
@@ -303,8 +287,26 @@ public class FileEventCatcher {
         return lastContent;
     }
 
-    String getLastContentHash() {
-        return lastContentHash;
+    FileFingerprint getLastFingerprint() {
+        return lastFingerprint;
+    }
+
+    // FileEvents 的入口：FileEventManager 是本文件的辅助类，其它源文件通过这里访问
+
+    static void addGlobalListener(FileEventListener listener) {
+        FileEventManager.getInstance().addGlobalListener(listener);
+    }
+
+    static void removeGlobalListener(FileEventListener listener) {
+        FileEventManager.getInstance().removeGlobalListener(listener);
+    }
+
+    static void watchDirectory(File directory) {
+        FileEventManager.getInstance().watchDirectory(FileEventManager.directoryKey(directory));
+    }
+
+    static void unwatchDirectory(File directory) {
+        FileEventManager.getInstance().unwatchDirectory(FileEventManager.directoryKey(directory));
     }
 }
 
@@ -314,6 +316,9 @@ public class FileEventCatcher {
 class FileEventManager {
     private static final FileEventManager INSTANCE = new FileEventManager();
     private final Map<Path, DirectoryWatcher> watchers = new ConcurrentHashMap<>();
+    // 通过 FileEvents.watchDirectory 固定监听的目录（没有监听器时也不关闭）
+    private final Set<Path> pinnedDirectories = new HashSet<>();
+    private final List<FileEventListener> globalListeners = new CopyOnWriteArrayList<>();
 
     private FileEventManager() {}
 
@@ -321,36 +326,77 @@ class FileEventManager {
         return INSTANCE;
     }
 
+    /**
+     * 监听目录的键：绝对、规范化的路径（同一个目录无论以相对路径还是 ./ 形式给出都只有一个监听器）
+     */
+    static Path directoryKey(File directory) {
+        return directory.toPath().toAbsolutePath().normalize();
+    }
+
+    private static Path parentKey(File target) {
+        return target.toPath().toAbsolutePath().normalize().getParent();
+    }
+
     public synchronized void register(FileEventCatcher catcher) {
         File target = catcher.getTarget();
-        Path directory = target.getParentFile().toPath();
+        Path directory = parentKey(target);
 
+        watcherFor(directory).addCatcher(catcher);
+    }
+
+    private DirectoryWatcher watcherFor(Path directory) {
         DirectoryWatcher watcher = watchers.get(directory);
         if (watcher == null) {
             try {
-                watcher = new DirectoryWatcher(directory);
+                watcher = new DirectoryWatcher(directory, globalListeners);
                 watchers.put(directory, watcher);
 
                 Thread thread = new Thread(watcher, "FileWatcher-" + directory.getFileName());
                 thread.setDaemon(true);
                 thread.start();
+
+                Thread dispatcher = new Thread(watcher::dispatchLoop, "FileDispatcher-" + directory.getFileName());
+                dispatcher.setDaemon(true);
+                dispatcher.start();
             } catch (IOException e) {
                 throw new RuntimeException("Failed to create watcher for directory: " + directory, e);
             }
         }
+        return watcher;
+    }
 
-        watcher.addCatcher(catcher);
+    public synchronized void watchDirectory(Path directory) {
+        pinnedDirectories.add(directory);
+        watcherFor(directory);
+    }
+
+    public synchronized void unwatchDirectory(Path directory) {
+        if (pinnedDirectories.remove(directory)) {
+            DirectoryWatcher watcher = watchers.get(directory);
+            if (watcher != null && watcher.isEmpty()) {
+                watcher.shutdown();
+                watchers.remove(directory);
+            }
+        }
+    }
+
+    public void addGlobalListener(FileEventListener listener) {
+        globalListeners.add(listener);
+    }
+
+    public void removeGlobalListener(FileEventListener listener) {
+        globalListeners.remove(listener);
     }
 
     public synchronized void unregister(FileEventCatcher catcher) {
         File target = catcher.getTarget();
-        Path directory = target.getParentFile().toPath();
+        Path directory = parentKey(target);
 
         DirectoryWatcher watcher = watchers.get(directory);
         if (watcher != null) {
             watcher.removeCatcher(catcher);
 
-            if (watcher.isEmpty()) {
+            if (watcher.isEmpty() && !pinnedDirectories.contains(directory)) {
                 watcher.shutdown();
                 watchers.remove(directory);
             }
@@ -362,8 +408,8 @@ class FileEventManager {
      */
     public synchronized void updateTarget(FileEventCatcher catcher, File newTarget) {
         File oldTarget = catcher.getTarget();
-        Path oldDirectory = oldTarget.getParentFile().toPath();
-        Path newDirectory = newTarget.getParentFile().toPath();
+        Path oldDirectory = parentKey(oldTarget);
+        Path newDirectory = parentKey(newTarget);
 
         // 如果目录相同，只需要更新文件名映射
         if (oldDirectory.equals(newDirectory)) {
@@ -382,17 +428,39 @@ class FileEventManager {
 
 /**
  * 目录监听器
+ * 监听线程只负责取出原始事件并按优先级入队，分发线程按优先级依次处理（哈希、重命名检测、回调）
+ * 所有 FileEventCatcher 回调都在分发线程上执行：写入稳定检测、大文件异步哈希和延迟删除
+ * 完成后都把后续步骤重新放回队列，而不是在其它线程上直接回调，保证同一个文件的回调按顺序执行
  */
 class DirectoryWatcher implements Runnable {
     private final Path directory;
     private final WatchService watchService;
     private final Map<String, List<FileEventCatcher>> catcherMap = new ConcurrentHashMap<>();
+    private final List<FileEventListener> globalListeners; // 与 FileEventManager 共享
+
+    // 优先级队列：HIGH 在前，同优先级按到达顺序
+    private final PriorityBlockingQueue<PendingEvent> eventQueue = new PriorityBlockingQueue<>();
+    private final AtomicLong eventSequence = new AtomicLong();
+    private volatile long lastHighPriorityDelete = 0L; // 高优先级文件最近一次被删除的时间（用于把随后的创建事件也提为高优先级）
     private final Map<String, FileMetadata> fileMetadata = new ConcurrentHashMap<>(); // 记录文件元数据
 
     // 重命名检测
     private final Map<String, DeletionRecord> deletionRecords = new ConcurrentHashMap<>();
     private static final long RENAME_DETECTION_WINDOW = 500; // 500ms 内的删除+创建视为重命名
 
+    // 写入完成检测：CREATED/MODIFIED 在文件大小和修改时间稳定之前暂不处理
+    private final Map<String, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+
+    // 正在异步哈希的大文件（期间同一个文件的 CREATED/MODIFIED 会合并到这次哈希中）
+    private final Set<String> hashingFiles = ConcurrentHashMap.newKeySet();
+
+    // 所有目录共用的定时线程（延迟删除、写入稳定检测）
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "FileWatcher-Scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private volatile boolean running = true;
 
     /**
@@ -400,31 +468,79 @@ class DirectoryWatcher implements Runnable {
      */
     private static class FileMetadata {
         final long size;
-        final String contentHash;
+        final FileFingerprint contentHash;
 
-        FileMetadata(long size, String contentHash) {
+        FileMetadata(long size, FileFingerprint contentHash) {
             this.size = size;
             this.contentHash = contentHash;
         }
     }
 
+    /**
+     * 事件所处的阶段
+     * RAW: WatchService 的原始事件
+     * SETTLED: 写入已稳定的 CREATED/MODIFIED
+     * HASHED: 大文件异步哈希已完成
+     * DELETE_EXPIRED: 删除后的重命名检测窗口已过
+     */
+    private enum Stage {
+        RAW,
+        SETTLED,
+        HASHED,
+        DELETE_EXPIRED
+    }
+
+    /**
+     * 大文件异步哈希的结果，以及哈希开始时的文件大小和修改时间
+     */
+    private record HashedFile(long size, long lastModified, FileFingerprint fingerprint) {
+    }
+
+    /**
+     * 等待分发的事件
+     */
+    private record PendingEvent(WatchEvent.Kind<?> kind, String fileName, Stage stage, HashedFile hashed,
+                                FileEventPriority priority, long sequence) implements Comparable<PendingEvent> {
+        @Override
+        public int compareTo(PendingEvent other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * 正在写入中的文件（等待大小和修改时间稳定）
+     */
+    private static class PendingWrite {
+        final WatchEvent.Kind<?> kind;
+        volatile long size;
+        volatile long lastModified;
+
+        PendingWrite(WatchEvent.Kind<?> kind, long size, long lastModified) {
+            this.kind = kind;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
     /**
      * 删除记录
      */
     private static class DeletionRecord {
         final long timestamp;
         final long size;
-        final String contentHash;
+        final FileFingerprint contentHash;
 
-        DeletionRecord(long timestamp, long size, String contentHash) {
+        DeletionRecord(long timestamp, long size, FileFingerprint contentHash) {
             this.timestamp = timestamp;
             this.size = size;
             this.contentHash = contentHash;
         }
     }
 
-    public DirectoryWatcher(Path directory) throws IOException {
+    public DirectoryWatcher(Path directory, List<FileEventListener> globalListeners) throws IOException {
         this.directory = directory;
+        this.globalListeners = globalListeners;
         this.watchService = FileSystems.getDefault().newWatchService();
 
         directory.register(watchService,
@@ -442,50 +558,22 @@ class DirectoryWatcher implements Runnable {
         if (files != null) {
             for (File file : files) {
                 if (file.isFile()) {
-                    String hash = calculateQuickHash(file);
+                    FileFingerprint hash = FileHasher.hash(file);
                     fileMetadata.put(file.getName(), new FileMetadata(file.length(), hash));
                 }
             }
         }
     }
 
-    /**
-     * 快速计算文件哈希（用于重命名检测）
-     */
-    private String calculateQuickHash(File file) {
-        if (!file.exists() || !file.isFile()) {
-            return null;
-        }
-
-        try {
-            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-            try (java.io.FileInputStream fis = new java.io.FileInputStream(file)) {
-                byte[] buffer = new byte[8192];
-                int bytesRead;
-                while ((bytesRead = fis.read(buffer)) != -1) {
-                    md.update(buffer, 0, bytesRead);
-                }
-            }
-            byte[] hash = md.digest();
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hash) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     public void addCatcher(FileEventCatcher catcher) {
         String fileName = catcher.getTarget().getName();
-        catcherMap.computeIfAbsent(fileName, k -> new ArrayList<>()).add(catcher);
+        catcherMap.computeIfAbsent(fileName, k -> new CopyOnWriteArrayList<>()).add(catcher);
 
         // 记录文件元数据
         if (catcher.getTarget().exists()) {
-            String hash = catcher.getLastContentHash();
+            FileFingerprint hash = catcher.getLastFingerprint();
             if (hash == null) {
-                hash = calculateQuickHash(catcher.getTarget());
+                hash = FileHasher.hash(catcher.getTarget());
             }
             fileMetadata.put(fileName, new FileMetadata(catcher.getTarget().length(), hash));
         }
@@ -520,14 +608,14 @@ class DirectoryWatcher implements Runnable {
         catcher.updateTarget(newTarget);
 
         // 添加到新文件名映射
-        catcherMap.computeIfAbsent(newFileName, k -> new ArrayList<>()).add(catcher);
+        catcherMap.computeIfAbsent(newFileName, k -> new CopyOnWriteArrayList<>()).add(catcher);
 
         // 更新文件元数据
         fileMetadata.remove(oldFileName);
         if (newTarget.exists()) {
-            String hash = catcher.getLastContentHash();
+            FileFingerprint hash = catcher.getLastFingerprint();
             if (hash == null) {
-                hash = calculateQuickHash(newTarget);
+                hash = FileHasher.hash(newTarget);
             }
             fileMetadata.put(newFileName, new FileMetadata(newTarget.length(), hash));
         }
@@ -562,7 +650,7 @@ class DirectoryWatcher implements Runnable {
                     Path fileName = (Path) event.context();
                     String fileNameStr = fileName.toString();
 
-                    handleEvent(kind, fileNameStr);
+                    enqueueEvent(kind, fileNameStr);
                 }
 
                 boolean valid = key.reset();
@@ -577,7 +665,70 @@ class DirectoryWatcher implements Runnable {
         }
     }
 
+    /**
+     * 按优先级把原始事件放入分发队列
+     */
+    private void enqueueEvent(WatchEvent.Kind<?> kind, String fileName) {
+        FileEventPriority priority = priorityOf(fileName);
+        long now = System.currentTimeMillis();
+
+        if (priority == FileEventPriority.HIGH && kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            lastHighPriorityDelete = now;
+        } else if (kind == StandardWatchEventKinds.ENTRY_CREATE
+                && now - lastHighPriorityDelete <= RENAME_DETECTION_WINDOW) {
+            // 可能是控件文件被重命名后的新文件，需要和删除事件一起优先处理
+            priority = FileEventPriority.HIGH;
+        }
+
+        eventQueue.add(new PendingEvent(kind, fileName, Stage.RAW, null, priority, eventSequence.incrementAndGet()));
+    }
+
+    /**
+     * 把后续处理步骤放回分发队列
+     */
+    private void requeue(WatchEvent.Kind<?> kind, String fileName, Stage stage, HashedFile hashed) {
+        eventQueue.add(new PendingEvent(kind, fileName, stage, hashed, priorityOf(fileName), eventSequence.incrementAndGet()));
+    }
+
+    private FileEventPriority priorityOf(String fileName) {
+        List<FileEventCatcher> catchers = catcherMap.get(fileName);
+        if (catchers != null) {
+            for (FileEventCatcher catcher : catchers) {
+                if (catcher.getPriority() == FileEventPriority.HIGH) {
+                    return FileEventPriority.HIGH;
+                }
+            }
+        }
+        return FileEventPriority.NORMAL;
+    }
+
+    /**
+     * 分发线程：按优先级取出事件并处理
+     */
+    void dispatchLoop() {
+        try {
+            while (running) {
+                PendingEvent event = eventQueue.poll(200, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    continue;
+                }
+                switch (event.stage()) {
+                    case RAW -> handleEvent(event.kind(), event.fileName());
+                    case SETTLED -> handleSettled(event.kind(), event.fileName());
+                    case HASHED -> handleHashed(event.kind(), event.fileName(), event.hashed());
+                    case DELETE_EXPIRED -> handleDeleteExpired(event.fileName());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void handleEvent(WatchEvent.Kind<?> kind, String fileName) {
+        if (dropSelfWrite(kind, fileName)) {
+            return;
+        }
+
         if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
             handleCreate(fileName);
         } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
@@ -589,7 +740,36 @@ class DirectoryWatcher implements Runnable {
 
     private void handleCreate(String fileName) {
         File newFile = directory.resolve(fileName).toFile();
-        String newHash = calculateQuickHash(newFile);
+        if (hashingFiles.contains(fileName)) {
+            // 哈希完成时会发现文件已变化并重新处理
+            return;
+        }
+
+        // 重命名是原子的，新文件内容已完整，可以立即处理；否则等待写入完成
+        if (!isRenameCandidate(newFile) && holdUntilStable(StandardWatchEventKinds.ENTRY_CREATE, fileName, newFile)) {
+            return;
+        }
+        completeCreate(fileName);
+    }
+
+    /**
+     * 文件写入完成后处理创建事件（只在这里计算一次指纹，大文件在 I/O 线程池上异步计算）
+     */
+    private void completeCreate(String fileName) {
+        File newFile = directory.resolve(fileName).toFile();
+        if (newFile.length() > FileEventCatcher.MAX_CACHE_SIZE) {
+            hashThenRequeue(StandardWatchEventKinds.ENTRY_CREATE, fileName, newFile);
+            return;
+        }
+        byte[] content = readForCatchers(fileName, newFile);
+        finishCreate(fileName, newFile, content != null ? FileHasher.hash(content) : FileHasher.hash(newFile), content);
+    }
+
+    /**
+     * @param newHash 新文件的指纹，同时用于重命名检测、监听器和元数据
+     * @param content 小文件的内容（只在有监听器时读取），大文件为 null
+     */
+    private void finishCreate(String fileName, File newFile, FileFingerprint newHash, byte[] content) {
 
         // 首先检查是否是重命名事件
         String renamedFrom = detectRename(newHash);
@@ -608,10 +788,11 @@ class DirectoryWatcher implements Runnable {
         // 如果不是重命名，才是真正的创建事件
         List<FileEventCatcher> catchers = catcherMap.get(fileName);
         if (catchers != null) {
-            for (FileEventCatcher catcher : new ArrayList<>(catchers)) {
-                catcher.triggerCreated();
+            for (FileEventCatcher catcher : catchers) {
+                catcher.triggerCreated(newHash, content);
             }
         }
+        notifyGlobalListeners(newFile, FileEventType.CREATED);
 
         // 更新文件元数据
         if (newFile.exists()) {
@@ -620,9 +801,12 @@ class DirectoryWatcher implements Runnable {
     }
 
     private void handleDelete(String fileName) {
+        // 写入未完成就被删除（或移走），不再等待；正在进行的异步哈希完成后会发现文件已不存在
+        pendingWrites.remove(fileName);
+
         FileMetadata metadata = fileMetadata.remove(fileName);
         long fileSize = metadata != null ? metadata.size : 0L;
-        String contentHash = metadata != null ? metadata.contentHash : null;
+        FileFingerprint contentHash = metadata != null ? metadata.contentHash : null;
 
         // 记录删除信息，用于重命名检测
         deletionRecords.put(fileName, new DeletionRecord(
@@ -632,50 +816,275 @@ class DirectoryWatcher implements Runnable {
         ));
 
         // 延迟触发删除事件，等待重命名检测
-        scheduleDelayedDelete(fileName, fileSize);
+        scheduleDelayedDelete(fileName);
 
         // 注意：这里不再立即触发删除事件！
     }
 
-    private void scheduleDelayedDelete(String fileName, long fileSize) {
-        // 使用 ScheduledExecutorService 来延迟执行
-        java.util.concurrent.ScheduledExecutorService scheduler =
-                java.util.concurrent.Executors.newScheduledThreadPool(1);
+    private void scheduleDelayedDelete(String fileName) {
+        scheduler.schedule(() -> requeue(StandardWatchEventKinds.ENTRY_DELETE, fileName, Stage.DELETE_EXPIRED, null),
+                RENAME_DETECTION_WINDOW + 100, TimeUnit.MILLISECONDS);
+    }
 
-        scheduler.schedule(() -> {
-            // 检查这个文件是否已经被判定为重命名
-            if (deletionRecords.containsKey(fileName)) {
-                // 如果还在删除记录中，说明不是重命名，触发真正的删除事件
-                List<FileEventCatcher> catchers = catcherMap.get(fileName);
-                if (catchers != null) {
-                    for (FileEventCatcher catcher : new ArrayList<>(catchers)) {
-                        catcher.triggerDelete(fileSize);
-                    }
-                }
-                // 清理删除记录
-                deletionRecords.remove(fileName);
+    /**
+     * 重命名检测窗口已过（分发线程）
+     */
+    private void handleDeleteExpired(String fileName) {
+        // 如果还在删除记录中，说明不是重命名，触发真正的删除事件
+        DeletionRecord record = deletionRecords.remove(fileName);
+        if (record == null) {
+            return;
+        }
+        List<FileEventCatcher> catchers = catcherMap.get(fileName);
+        if (catchers != null) {
+            for (FileEventCatcher catcher : catchers) {
+                catcher.triggerDelete(record.size);
             }
-        }, RENAME_DETECTION_WINDOW + 100, java.util.concurrent.TimeUnit.MILLISECONDS);
-
-        scheduler.shutdown();
+        }
+        notifyGlobalListeners(directory.resolve(fileName).toFile(), FileEventType.DELETE_OR_MOVED);
     }
 
     private void handleModify(String fileName) {
+        File file = directory.resolve(fileName).toFile();
+        if (hashingFiles.contains(fileName)) {
+            // 哈希完成时会发现文件已变化并重新处理
+            return;
+        }
+        if (holdUntilStable(StandardWatchEventKinds.ENTRY_MODIFY, fileName, file)) {
+            return;
+        }
+        completeModify(fileName);
+    }
+
+    /**
+     * 文件写入完成后处理修改事件
+     */
+    private void completeModify(String fileName) {
+        File file = directory.resolve(fileName).toFile();
+        if (file.length() > FileEventCatcher.MAX_CACHE_SIZE) {
+            // 大文件异步哈希，避免阻塞同目录下其它文件的事件
+            hashThenRequeue(StandardWatchEventKinds.ENTRY_MODIFY, fileName, file);
+            return;
+        }
+        byte[] content = readForCatchers(fileName, file);
+        finishModify(fileName, file, content != null ? FileHasher.hash(content) : FileHasher.hash(file), content);
+    }
+
+    /**
+     * @param hash 这次修改的指纹（同一个指纹用于监听器和元数据，每次修改只哈希一次）
+     * @param content 小文件的内容（只在有监听器时读取），大文件为 null
+     */
+    private void finishModify(String fileName, File file, FileFingerprint hash, byte[] content) {
         List<FileEventCatcher> catchers = catcherMap.get(fileName);
         if (catchers != null) {
-            for (FileEventCatcher catcher : new ArrayList<>(catchers)) {
-                catcher.triggerModified();
+            for (FileEventCatcher catcher : catchers) {
+                catcher.triggerModified(hash, content);
             }
         }
 
         // 更新文件元数据
-        File file = directory.resolve(fileName).toFile();
+        notifyGlobalListeners(file, FileEventType.MODIFIED);
         if (file.exists()) {
-            String hash = calculateQuickHash(file);
             fileMetadata.put(fileName, new FileMetadata(file.length(), hash));
         }
     }
 
+    /**
+     * 有监听器时读取小文件内容（监听器需要内容，指纹也从这份内容计算）
+     * 没有监听器时返回 null，只以流的方式计算指纹
+     */
+    private byte[] readForCatchers(String fileName, File file) {
+        List<FileEventCatcher> catchers = catcherMap.get(fileName);
+        if (catchers == null || catchers.isEmpty() || !file.isFile()) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 在 I/O 线程池上哈希大文件，完成后把结果放回分发队列
+     * 哈希期间同一个文件的 CREATED/MODIFIED 不再单独处理
+     */
+    private void hashThenRequeue(WatchEvent.Kind<?> kind, String fileName, File file) {
+        hashingFiles.add(fileName);
+        long size = file.length();
+        long lastModified = file.lastModified();
+        FileHasher.hashAsync(file).whenComplete((fingerprint, e) -> {
+            if (e != null) {
+                // 没有结果可以交给分发线程，直接结束"哈希中"状态，之后的事件照常处理
+                hashingFiles.remove(fileName);
+                return;
+            }
+            requeue(kind, fileName, Stage.HASHED, new HashedFile(size, lastModified, fingerprint));
+        });
+    }
+
+    /**
+     * 大文件异步哈希完成（分发线程）
+     * 哈希期间文件被修改过（大小或修改时间不同）时结果已过期，重新处理而不是使用旧指纹
+     */
+    private void handleHashed(WatchEvent.Kind<?> kind, String fileName, HashedFile hashed) {
+        File file = directory.resolve(fileName).toFile();
+        if (!file.isFile()) {
+            // 哈希期间被删除，删除事件会负责后续处理
+            hashingFiles.remove(fileName);
+            return;
+        }
+
+        hashingFiles.remove(fileName);
+        if (file.length() != hashed.size() || file.lastModified() != hashed.lastModified()) {
+            if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                handleCreate(fileName);
+            } else {
+                handleModify(fileName);
+            }
+            return;
+        }
+        if (hashed.fingerprint() == null) {
+            // 文件无法读取（例如被其它程序锁定），之后的修改事件会再次尝试
+            return;
+        }
+
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+            finishCreate(fileName, file, hashed.fingerprint(), null);
+        } else {
+            finishModify(fileName, file, hashed.fingerprint(), null);
+        }
+    }
+
+    /**
+     * 丢弃游戏自身写入产生的事件（在任何读取/哈希之前）
+     * @return true 表示事件来自游戏自身写入，已被处理
+     */
+    private boolean dropSelfWrite(WatchEvent.Kind<?> kind, String fileName) {
+        File file = directory.resolve(fileName).toFile();
+        boolean deleteEvent = kind == StandardWatchEventKinds.ENTRY_DELETE;
+        SelfWriteRegistry.Expectation expectation = SelfWriteRegistry.match(file, deleteEvent);
+        if (expectation == null) {
+            return false;
+        }
+
+        if (deleteEvent) {
+            pendingWrites.remove(fileName);
+            fileMetadata.remove(fileName);
+        } else if (expectation.fingerprint() != null) {
+            // 已知写入内容，直接更新元数据和监听器缓存
+            fileMetadata.put(fileName, new FileMetadata(expectation.size(), expectation.fingerprint()));
+            List<FileEventCatcher> catchers = catcherMap.get(fileName);
+            if (catchers != null) {
+                for (FileEventCatcher catcher : catchers) {
+                    catcher.acceptSelfWrite(expectation.content(), expectation.fingerprint());
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 写入稳定后由分发线程调用
+     */
+    private void handleSettled(WatchEvent.Kind<?> kind, String fileName) {
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+            completeCreate(fileName);
+        } else {
+            completeModify(fileName);
+        }
+    }
+
+    /**
+     * 如果文件可能仍在写入，记录下来等待稳定
+     * 只有可能仍在写入的文件才等待：小文件（不超过 fileWriteSettleMinBytes 且非空）
+     * 和最近一个窗口期内没有被修改过的文件立即处理，不增加延迟
+     * 同一个文件在等待期间的后续事件会被合并（CREATE 后的 MODIFY 仍按 CREATE 处理）
+     * @return true 表示事件已被暂存，调用方不应立即处理
+     */
+    private boolean holdUntilStable(WatchEvent.Kind<?> kind, String fileName, File file) {
+        long window = GameSettings.fileWriteSettleMillis;
+        PendingWrite pending = pendingWrites.get(fileName);
+
+        if (pending != null) {
+            // 已在等待中，只更新观测值
+            pending.size = file.length();
+            pending.lastModified = file.lastModified();
+            return true;
+        }
+
+        if (window <= 0 || !file.isFile()) {
+            return false;
+        }
+
+        long size = file.length();
+        long lastModified = file.lastModified();
+        if (size > 0 && size <= GameSettings.fileWriteSettleMinBytes) {
+            return false;
+        }
+        if (System.currentTimeMillis() - lastModified >= window) {
+            // 已经有一个窗口期没有变化（例如整个移入目录的旧文件）
+            return false;
+        }
+
+        pendingWrites.put(fileName, new PendingWrite(kind, size, lastModified));
+        scheduleStabilityCheck(fileName, window);
+        return true;
+    }
+
+    private void scheduleStabilityCheck(String fileName, long window) {
+        scheduler.schedule(() -> checkStability(fileName, window), window, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 检查文件在一个窗口期内大小和修改时间是否都没有变化
+     */
+    private void checkStability(String fileName, long window) {
+        PendingWrite pending = pendingWrites.get(fileName);
+        if (pending == null || !running) {
+            return;
+        }
+
+        File file = directory.resolve(fileName).toFile();
+        if (!file.exists()) {
+            // 删除事件会负责清理
+            pendingWrites.remove(fileName, pending);
+            return;
+        }
+
+        long size = file.length();
+        long lastModified = file.lastModified();
+        long idle = System.currentTimeMillis() - lastModified;
+        // 合并的事件会更新观测值，所以还要求最后一次修改距今已满一个窗口
+        if (size != pending.size || lastModified != pending.lastModified || idle < window) {
+            pending.size = size;
+            pending.lastModified = lastModified;
+            scheduleStabilityCheck(fileName, Math.max(1, Math.min(window, window - idle)));
+            return;
+        }
+
+        if (pendingWrites.remove(fileName, pending)) {
+            requeue(pending.kind, fileName, Stage.SETTLED, null);
+        }
+    }
+
+    /**
+     * 新文件大小与最近删除的被监听文件相同，可能是重命名（原子操作，无需等待写入完成）
+     */
+    private boolean isRenameCandidate(File newFile) {
+        long size = newFile.length();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, DeletionRecord> entry : deletionRecords.entrySet()) {
+            DeletionRecord record = entry.getValue();
+            if (now - record.timestamp <= RENAME_DETECTION_WINDOW
+                    && record.size == size
+                    && catcherMap.containsKey(entry.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void handleRename(String oldFileName, String newFileName) {
         // 立即从删除记录中移除，这样延迟的删除事件就不会被触发
         DeletionRecord record = deletionRecords.remove(oldFileName);
@@ -684,17 +1093,31 @@ class DirectoryWatcher implements Runnable {
         if (catchers != null) {
             File newFile = directory.resolve(newFileName).toFile();
 
-            for (FileEventCatcher catcher : new ArrayList<>(catchers)) {
+            for (FileEventCatcher catcher : catchers) {
                 catcher.triggerRenamed(oldFileName, newFile);
             }
         }
+        notifyGlobalListeners(directory.resolve(newFileName).toFile(), FileEventType.RENAMED);
+    }
+
+    /**
+     * 把事件分发给全局监听器
+     */
+    private void notifyGlobalListeners(File file, FileEventType type) {
+        for (FileEventListener listener : globalListeners) {
+            try {
+                listener.onFileEvent(file, type);
+            } catch (Exception e) {
+                CrashUtils.crash(e);
+            }
+        }
     }
 
     /**
      * 检测是否是重命名事件
      * 通过比对内容哈希来确定是否是同一个文件
      */
-    private String detectRename(String newFileHash) {
+    private String detectRename(FileFingerprint newFileHash) {
         if (newFileHash == null) {
             return null;
         }
@@ -0,0 +1,15 @@
+package io.github.nekosora.api.file;
+
+import java.io.File;
+
+/**
+ * 全局文件事件监听器：接收所有被监听目录中的文件事件（不包括游戏自身的写入）
+ * 在分发线程上调用，不应执行耗时操作
+ */
+public interface FileEventListener {
+    /**
+     * @param file 发生事件的文件（RENAMED 时为新文件）
+     * @param type 事件类型（不会是 ALL）
+     */
+    void onFileEvent(File file, FileEventType type);
+}
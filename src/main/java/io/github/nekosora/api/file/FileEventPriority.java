@@ -0,0 +1,11 @@
+package io.github.nekosora.api.file;
+
+/**
+ * 文件事件分发优先级
+ * HIGH: 游戏控件（按钮、开关等），在繁忙目录中优先分发
+ * NORMAL: 普通文件事件
+ */
+public enum FileEventPriority {
+    HIGH,
+    NORMAL;
+}
@@ -0,0 +1,30 @@
+package io.github.nekosora.api.file;
+
+import java.io.File;
+
+/**
+ * 全局文件事件入口
+ * 与 FileEventCatcher 不同，这里的监听器只订阅一次，就能收到所有被监听目录中任意文件的事件
+ */
+public final class FileEvents {
+    private FileEvents() {}
+
+    public static void addListener(FileEventListener listener) {
+        FileEventCatcher.addGlobalListener(listener);
+    }
+
+    public static void removeListener(FileEventListener listener) {
+        FileEventCatcher.removeGlobalListener(listener);
+    }
+
+    /**
+     * 监听整个目录（即使没有 FileEventCatcher），目录中的事件会分发给全局监听器
+     */
+    public static void watchDirectory(File directory) {
+        FileEventCatcher.watchDirectory(directory);
+    }
+
+    public static void unwatchDirectory(File directory) {
+        FileEventCatcher.unwatchDirectory(directory);
+    }
+}
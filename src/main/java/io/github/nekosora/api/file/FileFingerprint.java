@@ -0,0 +1,30 @@
+package io.github.nekosora.api.file;
+
+/**
+ * 文件内容指纹（128 位，以两个 long 存储，避免每次比较都生成十六进制字符串）
+ */
+public record FileFingerprint(long high, long low) {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * 转换为十六进制字符串（仅用于日志/调试）
+     */
+    public String toHex() {
+        char[] chars = new char[32];
+        writeHex(chars, 0, high);
+        writeHex(chars, 16, low);
+        return new String(chars);
+    }
+
+    private static void writeHex(char[] chars, int offset, long value) {
+        for (int i = 15; i >= 0; i--) {
+            chars[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
@@ -0,0 +1,288 @@
+package io.github.nekosora.api.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32C;
+
+/**
+ * 文件哈希工具，FileEventCatcher 与 DirectoryWatcher 共用
+ * 哈希状态（摘要对象和缓冲区）从一个有界池中借用，不再为每次哈希分配 8KB 数组和新的 MessageDigest；
+ * 池中的状态使用直接缓冲区，池被借空时临时创建的状态使用堆缓冲区，
+ * 因此大量短命的（虚拟）线程也不会各自占用一块堆外内存
+ */
+public final class FileHasher {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static volatile Algorithm algorithm = Algorithm.FAST;
+
+    // 池中最多保留的哈希状态数量（每个占用 64KB 堆外内存）
+    private static final int POOL_SIZE = 8;
+    private static final BlockingQueue<HashState> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final AtomicInteger pooledCount = new AtomicInteger();
+
+    // 大文件异步读取使用的专用 I/O 线程池（不占用监听线程）
+    private static final AtomicInteger ioThreadCount = new AtomicInteger();
+    private static final ExecutorService ioPool = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "FileHasher-IO-" + ioThreadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 哈希算法
+     * FAST: CRC32C + Adler32 + 长度（JVM 内建加速，用于重命名检测足够）
+     * SHA256: 取 SHA-256 前 128 位（更强的抗碰撞性，但慢得多）
+     */
+    public enum Algorithm {
+        FAST,
+        SHA256
+    }
+
+    private FileHasher() {}
+
+    public static Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public static void setAlgorithm(Algorithm algorithm) {
+        FileHasher.algorithm = algorithm;
+    }
+
+    /**
+     * 计算字节数组的指纹
+     */
+    public static FileFingerprint hash(byte[] content) {
+        if (content == null) {
+            return null;
+        }
+        HashState state = acquire();
+        try {
+            state.reset(algorithm);
+            state.update(content, 0, content.length);
+            return state.finish(content.length);
+        } finally {
+            release(state);
+        }
+    }
+
+    /**
+     * 流式计算文件的指纹
+     * @return 指纹，文件不存在或读取失败时返回 null
+     */
+    public static FileFingerprint hash(File file) {
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+
+        HashState state = acquire();
+        state.reset(algorithm);
+        ByteBuffer buffer = state.buffer;
+        long total = 0;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                total += buffer.remaining();
+                state.update(buffer);
+                buffer.clear();
+            }
+            return state.finish(total);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            release(state);
+        }
+    }
+
+    /**
+     * 从池中借用哈希状态，池为空时创建：总数未达上限时使用直接缓冲区（之后归还到池中），否则使用堆缓冲区
+     */
+    private static HashState acquire() {
+        HashState state = POOL.poll();
+        if (state != null) {
+            return state;
+        }
+        if (pooledCount.incrementAndGet() <= POOL_SIZE) {
+            return new HashState(true);
+        }
+        pooledCount.decrementAndGet();
+        return new HashState(false);
+    }
+
+    private static void release(HashState state) {
+        if (state.pooled) {
+            POOL.offer(state);
+        }
+    }
+
+    /**
+     * 通过 AsynchronousFileChannel 异步计算文件指纹（用于大文件）
+     * 读取在专用 I/O 线程池上完成，调用线程立即返回
+     * @return 完成时给出指纹，文件不存在或读取失败时给出 null
+     */
+    public static CompletableFuture<FileFingerprint> hashAsync(File file) {
+        CompletableFuture<FileFingerprint> future = new CompletableFuture<>();
+        if (file == null || !file.isFile()) {
+            future.complete(null);
+            return future;
+        }
+
+        AsynchronousFileChannel channel;
+        try {
+            channel = AsynchronousFileChannel.open(file.toPath(), Set.of(StandardOpenOption.READ), ioPool);
+        } catch (IOException | RuntimeException e) {
+            future.complete(null);
+            return future;
+        }
+
+        // 异步回调可能在不同线程上执行，状态在整个读取过程中由这一次操作独占
+        HashState state = acquire();
+        state.reset(algorithm);
+        future.whenComplete((fingerprint, e) -> release(state));
+        new AsyncHashReader(channel, state, future).readNext();
+        return future;
+    }
+
+    /**
+     * 关闭异步 I/O 线程池
+     */
+    public static void shutdown() {
+        ioPool.shutdown();
+    }
+
+    /**
+     * 异步分块读取并更新哈希状态
+     */
+    private static final class AsyncHashReader implements CompletionHandler<Integer, Void> {
+        private final AsynchronousFileChannel channel;
+        private final HashState state;
+        private final CompletableFuture<FileFingerprint> future;
+        private long position = 0;
+
+        AsyncHashReader(AsynchronousFileChannel channel, HashState state, CompletableFuture<FileFingerprint> future) {
+            this.channel = channel;
+            this.state = state;
+            this.future = future;
+        }
+
+        void readNext() {
+            state.buffer.clear();
+            try {
+                channel.read(state.buffer, position, null, this);
+            } catch (RuntimeException e) {
+                // I/O 线程池已关闭时 read 直接抛出（ShutdownChannelGroupException 等），同样按失败处理
+                failed(e, null);
+            }
+        }
+
+        @Override
+        public void completed(Integer read, Void attachment) {
+            if (read == -1) {
+                close();
+                future.complete(state.finish(position));
+                return;
+            }
+
+            ByteBuffer buffer = state.buffer;
+            buffer.flip();
+            position += buffer.remaining();
+            state.update(buffer);
+            readNext();
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment) {
+            close();
+            future.complete(null);
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // 已读完或读取失败，关闭异常无需处理
+            }
+        }
+    }
+
+    /**
+     * 哈希状态（同一时间只被一次哈希操作使用）
+     */
+    private static final class HashState {
+        final boolean pooled;
+        final ByteBuffer buffer;
+        final CRC32C crc32c = new CRC32C();
+        final Adler32 adler32 = new Adler32();
+        final MessageDigest sha256;
+        Algorithm current = Algorithm.FAST;
+
+        HashState(boolean pooled) {
+            this.pooled = pooled;
+            this.buffer = pooled ? ByteBuffer.allocateDirect(BUFFER_SIZE) : ByteBuffer.allocate(BUFFER_SIZE);
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        void reset(Algorithm algorithm) {
+            current = algorithm;
+            crc32c.reset();
+            adler32.reset();
+            sha256.reset();
+        }
+
+        void update(byte[] bytes, int offset, int length) {
+            if (current == Algorithm.SHA256) {
+                sha256.update(bytes, offset, length);
+            } else {
+                crc32c.update(bytes, offset, length);
+                adler32.update(bytes, offset, length);
+            }
+        }
+
+        void update(ByteBuffer data) {
+            if (current == Algorithm.SHA256) {
+                sha256.update(data);
+            } else {
+                int position = data.position();
+                crc32c.update(data);
+                data.position(position);
+                adler32.update(data);
+            }
+        }
+
+        FileFingerprint finish(long length) {
+            if (current == Algorithm.SHA256) {
+                byte[] digest = sha256.digest();
+                return new FileFingerprint(readLong(digest, 0), readLong(digest, 8));
+            }
+            return new FileFingerprint(length, (crc32c.getValue() << 32) | adler32.getValue());
+        }
+
+        private static long readLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (bytes[offset + i] & 0xFF);
+            }
+            return value;
+        }
+    }
+}
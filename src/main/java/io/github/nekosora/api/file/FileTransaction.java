@@ -0,0 +1,237 @@
+package io.github.nekosora.api.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 暂存式文件事务
+ * 先描述目标文件集合（写入哪些内容、删除哪些文件），提交时：
+ * 1. 与目录当前内容比较，只保留真正有变化的文件（大小和指纹都相同的写入会被跳过）
+ * 2. 把所有新内容写入 root 下的暂存目录，任何一个失败都不会改动目标文件
+ * 3. 一次性用原子重命名发布（被替换的旧文件先在暂存目录中保留一份），再执行删除，
+ *    并登记为游戏自身写入，监听器不会为这些改动分发事件；
+ *    发布途中失败时，已发布的文件恢复为原内容（原来不存在的被删除）；删除在全部发布成功之后进行，失败不回滚
+ * 每个文件的替换都是原子的，玩家不会看到写了一半的文件
+ * 暂存目录名固定，同一时间只有一个事务在提交
+ */
+public final class FileTransaction {
+    private static final Logger log = LoggerFactory.getLogger(FileTransaction.class);
+    private static final String STAGING_NAME = ".filexe-staging";
+    private static final Object commitLock = new Object();
+
+    private final File root;
+    private final Path rootPath;
+    // 相对路径 -> 新内容（null 表示删除），保持描述顺序
+    private final Map<String, Content> changes = new LinkedHashMap<>();
+
+    /**
+     * 新内容，text 只在文本写入时保留（用于更新监听器的内容缓存）
+     */
+    private record Content(byte[] bytes, String text) {
+    }
+
+    /**
+     * 提交结果
+     */
+    public record Result(int written, int deleted, int unchanged) {
+    }
+
+    private FileTransaction(File root) {
+        this.root = root;
+        this.rootPath = root.toPath().toAbsolutePath().normalize();
+    }
+
+    /**
+     * @param root 事务作用的目录，暂存目录也建在这里（保证重命名在同一个文件系统内）
+     */
+    public static FileTransaction in(File root) {
+        return new FileTransaction(root);
+    }
+
+    public FileTransaction write(String path, String content) {
+        changes.put(checkPath(path), new Content(content.getBytes(StandardCharsets.UTF_8), content));
+        return this;
+    }
+
+    public FileTransaction write(String path, byte[] content) {
+        changes.put(checkPath(path), new Content(content, null));
+        return this;
+    }
+
+    public FileTransaction delete(String path) {
+        changes.put(checkPath(path), null);
+        return this;
+    }
+
+    private String checkPath(String path) {
+        Path resolved = rootPath.resolve(path).normalize();
+        if (!resolved.startsWith(rootPath) || resolved.equals(rootPath)) {
+            throw new IllegalArgumentException("Path escapes transaction root: " + path);
+        }
+        return path;
+    }
+
+    /**
+     * 计算差异、暂存并发布
+     */
+    public Result commit() throws IOException {
+        List<File> writeTargets = new ArrayList<>();
+        List<Content> writeContents = new ArrayList<>();
+        List<FileFingerprint> writeFingerprints = new ArrayList<>();
+        List<File> deleteTargets = new ArrayList<>();
+        int unchanged = 0;
+
+        // 1. 计算最小差异
+        for (Map.Entry<String, Content> change : changes.entrySet()) {
+            File target = rootPath.resolve(change.getKey()).normalize().toFile();
+            Content content = change.getValue();
+            if (content == null) {
+                if (target.exists()) {
+                    deleteTargets.add(target);
+                } else {
+                    unchanged++;
+                }
+                continue;
+            }
+
+            FileFingerprint fingerprint = FileHasher.hash(content.bytes());
+            if (target.isFile() && target.length() == content.bytes().length && fingerprint.equals(FileHasher.hash(target))) {
+                unchanged++;
+                continue;
+            }
+            writeTargets.add(target);
+            writeContents.add(content);
+            writeFingerprints.add(fingerprint);
+        }
+
+        if (writeTargets.isEmpty() && deleteTargets.isEmpty()) {
+            return new Result(0, 0, unchanged);
+        }
+
+        synchronized (commitLock) {
+            if (!writeTargets.isEmpty()) {
+                publish(writeTargets, writeContents, writeFingerprints);
+            }
+
+            int deleted = 0;
+            for (File target : deleteTargets) {
+                if (GameFileWriter.delete(target)) {
+                    deleted++;
+                }
+            }
+            return new Result(writeTargets.size(), deleted, unchanged);
+        }
+    }
+
+    /**
+     * 2. 写入暂存目录；3. 依次重命名发布，失败时恢复已发布的文件
+     */
+    private void publish(List<File> targets, List<Content> contents, List<FileFingerprint> fingerprints) throws IOException {
+        File staging = new File(root, STAGING_NAME);
+        SelfWriteRegistry.begin(staging);
+        try {
+            List<File> staged = new ArrayList<>();
+            Files.createDirectories(staging.toPath());
+            for (int i = 0; i < targets.size(); i++) {
+                File stagedFile = new File(staging, i + ".tmp");
+                Files.write(stagedFile.toPath(), contents.get(i).bytes());
+                staged.add(stagedFile);
+            }
+
+            // 每个已发布文件的旧内容，原来不存在时为 null
+            List<File> backups = new ArrayList<>();
+            try {
+                for (int i = 0; i < targets.size(); i++) {
+                    File target = targets.get(i);
+                    File parent = target.getParentFile();
+                    if (parent != null && !parent.exists()) {
+                        parent.mkdirs();
+                    }
+                    File backup = target.isFile() ? keep(target, new File(staging, i + ".bak")) : null;
+                    SelfWriteRegistry.begin(target);
+                    try {
+                        move(staged.get(i), target);
+                    } catch (IOException e) {
+                        SelfWriteRegistry.cancel(target);
+                        throw e;
+                    }
+                    SelfWriteRegistry.completeWrite(target, fingerprints.get(i), contents.get(i).text());
+                    backups.add(backup);
+                }
+            } catch (IOException e) {
+                rollback(targets, backups);
+                throw e;
+            }
+        } finally {
+            removeStaging(staging);
+        }
+    }
+
+    /**
+     * 在暂存目录中保留目标文件的当前内容（优先用硬链接，不复制数据）
+     */
+    private static File keep(File target, File backup) throws IOException {
+        Files.deleteIfExists(backup.toPath());
+        try {
+            Files.createLink(backup.toPath(), target.toPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(target.toPath(), backup.toPath());
+        }
+        return backup;
+    }
+
+    /**
+     * 按发布的相反顺序恢复：有旧内容的移回原处，原来不存在的删除
+     */
+    private static void rollback(List<File> targets, List<File> backups) {
+        for (int i = backups.size() - 1; i >= 0; i--) {
+            File target = targets.get(i);
+            File backup = backups.get(i);
+            if (backup == null) {
+                GameFileWriter.delete(target);
+                continue;
+            }
+            try {
+                FileFingerprint fingerprint = FileHasher.hash(backup);
+                SelfWriteRegistry.begin(target);
+                move(backup, target);
+                SelfWriteRegistry.completeWrite(target, fingerprint, null);
+            } catch (IOException e) {
+                SelfWriteRegistry.cancel(target);
+                log.error("Failed to roll back {}: {}", target.getAbsolutePath(), e.getMessage());
+            }
+        }
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void removeStaging(File staging) {
+        File[] leftovers = staging.listFiles();
+        if (leftovers != null) {
+            for (File leftover : leftovers) {
+                leftover.delete();
+            }
+        }
+        staging.delete();
+        // 目录删除事件同样被当作自身写入（目录名固定，登记会被下一次提交复用，不会累积）
+        SelfWriteRegistry.completeDelete(staging);
+    }
+}
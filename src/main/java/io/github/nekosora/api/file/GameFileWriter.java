@@ -0,0 +1,80 @@
+package io.github.nekosora.api.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * 游戏自身使用的文件写入器
+ * 通过它写入/创建/删除的文件会登记到 SelfWriteRegistry，监听器不会为游戏自己的写入读取、哈希和分发事件
+ */
+public final class GameFileWriter {
+    private GameFileWriter() {}
+
+    /**
+     * 写入文本内容（文件不存在时自动创建）
+     */
+    public static void writeString(File file, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        SelfWriteRegistry.begin(file);
+        try {
+            Files.write(file.toPath(), bytes);
+        } catch (IOException e) {
+            SelfWriteRegistry.cancel(file);
+            throw e;
+        }
+        SelfWriteRegistry.completeWrite(file, FileHasher.hash(bytes), content);
+    }
+
+    /**
+     * 写入二进制内容（文件不存在时自动创建）
+     */
+    public static void writeBytes(File file, byte[] bytes) throws IOException {
+        SelfWriteRegistry.begin(file);
+        try {
+            Files.write(file.toPath(), bytes);
+        } catch (IOException e) {
+            SelfWriteRegistry.cancel(file);
+            throw e;
+        }
+        // 二进制内容不作为文本缓存，只登记指纹
+        SelfWriteRegistry.completeWrite(file, FileHasher.hash(bytes), null);
+    }
+
+    /**
+     * 创建空文件
+     * @return 文件原本不存在且创建成功时返回 true
+     */
+    public static boolean createFile(File file) throws IOException {
+        SelfWriteRegistry.begin(file);
+        boolean created;
+        try {
+            created = file.createNewFile();
+        } catch (IOException e) {
+            SelfWriteRegistry.cancel(file);
+            throw e;
+        }
+        if (created) {
+            SelfWriteRegistry.completeWrite(file, FileHasher.hash(new byte[0]), "");
+        } else {
+            SelfWriteRegistry.cancel(file);
+        }
+        return created;
+    }
+
+    /**
+     * 删除文件
+     * @return 删除成功时返回 true
+     */
+    public static boolean delete(File file) {
+        SelfWriteRegistry.begin(file);
+        boolean deleted = file.delete();
+        if (deleted) {
+            SelfWriteRegistry.completeDelete(file);
+        } else {
+            SelfWriteRegistry.cancel(file);
+        }
+        return deleted;
+    }
+}
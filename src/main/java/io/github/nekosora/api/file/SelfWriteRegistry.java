@@ -0,0 +1,85 @@
+package io.github.nekosora.api.file;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 游戏自身写入的登记表
+ * GameFileWriter 在写入前后登记预期的 (路径, 大小, 指纹)，监听器在读取/哈希之前据此丢弃匹配的事件
+ */
+final class SelfWriteRegistry {
+    // 登记的有效期，超过后不再抑制事件
+    private static final long EXPECTATION_TTL = 2000;
+
+    private static final Map<Path, Expectation> expectations = new ConcurrentHashMap<>();
+
+    /**
+     * 预期状态
+     * inProgress: 正在写入（写入完成前到达的事件一律视为自身写入）
+     * content: 写入的文本，只有文本写入才记录（二进制写入为 null，只保留指纹）
+     */
+    record Expectation(boolean inProgress, boolean deleted, long size, long lastModified,
+                       FileFingerprint fingerprint, String content, long expiresAt) {
+    }
+
+    private SelfWriteRegistry() {}
+
+    static Path key(File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    static void begin(File file) {
+        expectations.put(key(file), new Expectation(true, false, -1L, 0L, null, null,
+                System.currentTimeMillis() + EXPECTATION_TTL));
+    }
+
+    static void completeWrite(File file, FileFingerprint fingerprint, String content) {
+        expectations.put(key(file), new Expectation(false, false, file.length(), file.lastModified(),
+                fingerprint, content, System.currentTimeMillis() + EXPECTATION_TTL));
+    }
+
+    static void completeDelete(File file) {
+        expectations.put(key(file), new Expectation(false, true, 0L, 0L, null, null,
+                System.currentTimeMillis() + EXPECTATION_TTL));
+    }
+
+    static void cancel(File file) {
+        expectations.remove(key(file));
+    }
+
+    /**
+     * 查找与当前文件状态匹配的登记（只做 stat，不读取内容）
+     * @param deleteEvent 是否为删除事件
+     * @return 匹配的登记，不匹配时返回 null
+     */
+    static Expectation match(File file, boolean deleteEvent) {
+        if (expectations.isEmpty()) {
+            return null;
+        }
+
+        Path key = key(file);
+        Expectation expectation = expectations.get(key);
+        if (expectation == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() > expectation.expiresAt()) {
+            expectations.remove(key, expectation);
+            return null;
+        }
+        if (expectation.inProgress()) {
+            return expectation;
+        }
+
+        if (deleteEvent) {
+            return expectation.deleted() ? expectation : null;
+        }
+        if (!expectation.deleted()
+                && file.length() == expectation.size()
+                && file.lastModified() == expectation.lastModified()) {
+            return expectation;
+        }
+        return null;
+    }
+}
@@ -1,7 +1,9 @@
 package io.github.nekosora.api.file.widgets;
 
 import io.github.nekosora.api.file.FileEventCatcher;
+import io.github.nekosora.api.file.FileEventPriority;
 import io.github.nekosora.api.file.FileEventType;
+import io.github.nekosora.api.file.GameFileWriter;
 import io.github.nekosora.utils.CrashUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,7 +37,7 @@ public class FileButton extends FileWidgets {
                 File originalFile = new File(file1.getParent(), file1.getName());
                 if (!originalFile.exists()) {
                     try {
-                        if (!originalFile.createNewFile()) {
+                        if (!GameFileWriter.createFile(originalFile)) {
                             log.error("Could not create {}", originalFile.getAbsolutePath());
                         } else {
                             log.debug("Button reset: {}", originalFile.getAbsolutePath());
@@ -45,6 +47,6 @@ public class FileButton extends FileWidgets {
                     }
                 }
             }, 2, TimeUnit.SECONDS);  // 2秒后回弹
-        }, FileEventType.DELETE_OR_MOVED);
+        }, FileEventType.DELETE_OR_MOVED, FileEventPriority.HIGH);
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package io.github.nekosora.api.file.widgets;
 
 import io.github.nekosora.api.file.FileEventCatcher;
+import io.github.nekosora.api.file.FileEventPriority;
 import io.github.nekosora.api.file.FileEventType;
 
 import java.io.File;
@@ -23,7 +24,7 @@ public class FileSwitch extends FileWidgets {
                 handler.accept(false); // 切换到off状态
             }
             // 如果都不是，说明扩展名不合法，忽略
-        }, FileEventType.RENAMED));
+        }, FileEventType.RENAMED, FileEventPriority.HIGH));
     }
 
     // 便捷构造方法，使用默认的.on/.off
@@ -12,4 +12,8 @@ public abstract class FileWidgets {
     public void register () {
         catcher.start();
     }
+
+    public void unregister () {
+        catcher.stop();
+    }
 }
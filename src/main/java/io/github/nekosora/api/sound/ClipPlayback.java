@@ -0,0 +1,158 @@
+package io.github.nekosora.api.sound;
+
+import javax.sound.sampled.Clip;
+import javax.sound.sampled.FloatControl;
+import javax.sound.sampled.LineEvent;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 混音器不可用时的 Clip 播放
+ * 所有打开的 Clip 都登记在这里，保证线路一定会被关闭，并限制同时打开的数量
+ */
+class ClipPlayback implements Playback {
+    // 同时打开的 Clip 上限，超过时停止最早的
+    private static final int MAX_CLIPS = 8;
+    private static final long RAMP_STEP_MILLIS = 10;
+
+    private static final Deque<ClipPlayback> active = new ConcurrentLinkedDeque<>();
+    private static final ScheduledExecutorService rampScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "SoundEngine-ClipRamp");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Clip clip;
+    private final SoundHandle handle;
+    private final float baseVolume;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+    private float level = 1.0f;
+    private ScheduledFuture<?> ramp;
+
+    private ClipPlayback(Clip clip, SoundHandle handle, float baseVolume) {
+        this.clip = clip;
+        this.handle = handle;
+        this.baseVolume = baseVolume;
+    }
+
+    /**
+     * 登记并开始播放一个已打开的 Clip
+     * 监听器在 start() 之前注册，很短的 Clip 也不会漏掉 STOP 事件
+     */
+    static ClipPlayback start(Clip clip, SoundHandle handle, float baseVolume) {
+        while (active.size() >= MAX_CLIPS) {
+            ClipPlayback oldest = active.pollFirst();
+            if (oldest != null) {
+                oldest.release();
+            }
+        }
+
+        ClipPlayback playback = new ClipPlayback(clip, handle, baseVolume);
+        active.addLast(playback);
+        clip.addLineListener(event -> {
+            if (event.getType() == LineEvent.Type.STOP) {
+                playback.release();
+            }
+        });
+        playback.applyLevel();
+        handle.attach(playback);
+        clip.start();
+        return playback;
+    }
+
+    /**
+     * 关闭所有 Clip
+     */
+    static void releaseAll() {
+        ClipPlayback playback;
+        while ((playback = active.pollFirst()) != null) {
+            playback.release();
+        }
+        rampScheduler.shutdownNow();
+    }
+
+    /**
+     * 渐变到目标音量，新的渐变会取消尚未完成的旧渐变
+     * 引擎已关闭（调度器已停止）时直接应用目标音量
+     */
+    @Override
+    public synchronized void rampTo(float target, double seconds, boolean stopAfter) {
+        if (released.get()) {
+            return;
+        }
+        if (ramp != null) {
+            ramp.cancel(false);
+            ramp = null;
+        }
+
+        int steps = (int) Math.max(1, seconds * 1000 / RAMP_STEP_MILLIS);
+        float start = level;
+        int[] step = {0};
+        // 任务只结束自己，不能动 ramp 字段里可能已经换上的新渐变
+        ScheduledFuture<?>[] self = new ScheduledFuture<?>[1];
+        try {
+            self[0] = rampScheduler.scheduleAtFixedRate(() -> {
+                synchronized (this) {
+                    step[0]++;
+                    level = start + (target - start) * step[0] / steps;
+                    applyLevel();
+                    if (step[0] >= steps) {
+                        self[0].cancel(false);
+                        if (ramp == self[0]) {
+                            ramp = null;
+                        }
+                        if (stopAfter) {
+                            release();
+                        }
+                    }
+                }
+            }, RAMP_STEP_MILLIS, RAMP_STEP_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            level = target;
+            applyLevel();
+            if (stopAfter) {
+                release();
+            }
+            return;
+        }
+        ramp = self[0];
+    }
+
+    private void applyLevel() {
+        if (!clip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
+            return;
+        }
+        FloatControl gain = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
+        float volume = baseVolume * level;
+        if (volume <= 0.0001f) {
+            gain.setValue(gain.getMinimum());
+        } else {
+            float dB = (float) (Math.log10(volume) * 20.0);
+            gain.setValue(Math.max(gain.getMinimum(), Math.min(gain.getMaximum(), dB)));
+        }
+    }
+
+    /**
+     * 停止并关闭线路（只执行一次）
+     */
+    void release() {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        active.remove(this);
+        synchronized (this) {
+            if (ramp != null) {
+                ramp.cancel(false);
+            }
+        }
+        clip.stop();
+        clip.close();
+        handle.complete();
+    }
+}
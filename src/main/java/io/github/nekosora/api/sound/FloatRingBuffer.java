@@ -0,0 +1,80 @@
+package io.github.nekosora.api.sound;
+
+/**
+ * 固定容量的浮点环形缓冲区（单生产者/单消费者）
+ * 写入方在空间不足时阻塞，读取方从不阻塞
+ * 每次 clear 都会推进代数，写入方带上开始解码时的代数，清空之前解码出的旧数据会被丢弃
+ */
+class FloatRingBuffer {
+    private final float[] buffer;
+    private int readIndex = 0;
+    private int size = 0;
+    private boolean closed = false;
+    private int generation = 0;
+
+    FloatRingBuffer(int capacity) {
+        this.buffer = new float[capacity];
+    }
+
+    /**
+     * 写入全部数据，空间不足时等待
+     * @param generation 数据所属的代数（见 {@link #generation()}）
+     * @return false 表示缓冲区已关闭，或者期间被清空过（剩余数据已过期，没有写入）
+     */
+    synchronized boolean write(float[] data, int offset, int length, int generation) throws InterruptedException {
+        int written = 0;
+        while (written < length) {
+            while (size == buffer.length && !closed && this.generation == generation) {
+                wait();
+            }
+            if (closed || this.generation != generation) {
+                return false;
+            }
+            int writeIndex = (readIndex + size) % buffer.length;
+            int chunk = Math.min(length - written, Math.min(buffer.length - size, buffer.length - writeIndex));
+            System.arraycopy(data, offset + written, buffer, writeIndex, chunk);
+            size += chunk;
+            written += chunk;
+        }
+        return true;
+    }
+
+    /**
+     * 读取最多 length 个数据
+     * @return 实际读取的数量
+     */
+    synchronized int read(float[] target, int offset, int length) {
+        int read = 0;
+        while (read < length && size > 0) {
+            int chunk = Math.min(length - read, Math.min(size, buffer.length - readIndex));
+            System.arraycopy(buffer, readIndex, target, offset + read, chunk);
+            readIndex = (readIndex + chunk) % buffer.length;
+            size -= chunk;
+            read += chunk;
+        }
+        if (read > 0) {
+            notifyAll();
+        }
+        return read;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized int generation() {
+        return generation;
+    }
+
+    synchronized void clear() {
+        generation++;
+        readIndex = 0;
+        size = 0;
+        notifyAll();
+    }
+
+    synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.nekosora.api.sound;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * 基于 SourceDataLine 的混音输出（整个游戏只占用一条输出线路）
+ */
+public class LineOutput implements MixerOutput {
+    private SourceDataLine line;
+
+    @Override
+    public void open(AudioFormat format, int bufferBytes) throws LineUnavailableException {
+        line = AudioSystem.getSourceDataLine(format);
+        line.open(format, bufferBytes);
+        line.start();
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) {
+        line.write(data, offset, length);
+    }
+
+    @Override
+    public int available() {
+        return line.available();
+    }
+
+    @Override
+    public void close() {
+        if (line != null) {
+            line.stop();
+            line.close();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.nekosora.api.sound;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+
+/**
+ * 混音器的输出端
+ * 默认实现为 LineOutput（SourceDataLine），测试或无声卡环境可以使用 NullOutput
+ */
+public interface MixerOutput {
+    void open(AudioFormat format, int bufferBytes) throws LineUnavailableException;
+
+    /**
+     * 写入 PCM 数据，缓冲区满时阻塞（以此控制混音节奏）
+     */
+    void write(byte[] data, int offset, int length);
+
+    /**
+     * @return 输出缓冲区中还可以写入的字节数
+     */
+    int available();
+
+    void close();
+}
@@ -0,0 +1,114 @@
+package io.github.nekosora.api.sound;
+
+/**
+ * 混音器中的一个发声源
+ */
+abstract class MixerVoice implements Playback {
+    protected volatile float volume = 1.0f;
+    protected volatile float balance = 0.5f; // 0.0 (左) - 0.5 (中) - 1.0 (右)
+
+    // 包络（淡入淡出），仅由混音线程推进
+    private float envelope = 1.0f;
+    private Ramp activeRamp = null;
+    private double rampRemainingFrames = 0;
+    private volatile Ramp requestedRamp = null;
+    private boolean faded = false;
+    private volatile SoundHandle handle;
+    long triggerNanos = System.nanoTime(); // 触发播放的时间，用于统计开始播放延迟
+
+    /**
+     * 包络变化请求（由任意线程发出，混音线程在下一个块中接手）
+     */
+    private record Ramp(float target, double seconds, boolean stopAfter) {
+    }
+
+    /**
+     * 把接下来的 frames 帧叠加到立体声交错缓冲区中
+     * @param mix 立体声交错的浮点缓冲区（L, R, L, R...）
+     * @param outputRate 混音器的采样率
+     * @return false 表示已播放完毕，混音器会移除该发声源
+     */
+    abstract boolean render(float[] mix, int frames, float outputRate);
+
+    /**
+     * 被移除时调用（播放完毕、被停止或被抢占）
+     */
+    void onRemoved() {
+        SoundHandle current = handle;
+        if (current != null) {
+            current.complete();
+        }
+    }
+
+    void setHandle(SoundHandle handle) {
+        this.handle = handle;
+        handle.attach(this);
+    }
+
+    /**
+     * 在指定时间内把包络线性变化到目标值
+     * @param stopAfter 到达目标后是否停止（用于淡出）
+     */
+    @Override
+    public void rampTo(float target, double seconds, boolean stopAfter) {
+        requestedRamp = new Ramp(target, seconds, stopAfter);
+    }
+
+    /**
+     * 设置初始包络（在交给混音器之前调用，例如从 0 开始淡入）
+     */
+    void setInitialEnvelope(float envelope) {
+        this.envelope = envelope;
+    }
+
+    /**
+     * 当前块开始时的包络值
+     */
+    float envelopeStart() {
+        return envelope;
+    }
+
+    /**
+     * 推进包络并返回当前块结束时的包络值（每个块调用一次）
+     */
+    float advanceEnvelope(int frames, float outputRate) {
+        Ramp requested = requestedRamp;
+        if (requested != activeRamp && requested != null) {
+            activeRamp = requested;
+            rampRemainingFrames = Math.max(1.0, requested.seconds() * outputRate);
+        }
+
+        if (activeRamp == null) {
+            return envelope;
+        }
+
+        float end;
+        if (rampRemainingFrames <= frames) {
+            end = activeRamp.target();
+            rampRemainingFrames = 0;
+            if (activeRamp.stopAfter()) {
+                faded = true;
+            }
+        } else {
+            end = envelope + (float) ((activeRamp.target() - envelope) * frames / rampRemainingFrames);
+            rampRemainingFrames -= frames;
+        }
+        envelope = end;
+        return end;
+    }
+
+    /**
+     * @return 淡出已完成，应停止
+     */
+    boolean isFadedOut() {
+        return faded;
+    }
+
+    float leftGain() {
+        return volume * Math.min(1.0f, 2.0f * (1.0f - balance));
+    }
+
+    float rightGain() {
+        return volume * Math.min(1.0f, 2.0f * balance);
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.nekosora.api.sound;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 不发声的混音输出，按实际播放速度丢弃数据
+ * 用于测试和没有声卡的环境
+ */
+public class NullOutput implements MixerOutput {
+    private final boolean realtime;
+    private long nanosPerByte;
+    private int bufferBytes;
+    private long nextWriteAt;
+
+    public NullOutput() {
+        this(true);
+    }
+
+    /**
+     * @param realtime false 时不等待，混音线程以最快速度运行
+     */
+    public NullOutput(boolean realtime) {
+        this.realtime = realtime;
+    }
+
+    @Override
+    public void open(AudioFormat format, int bufferBytes) {
+        this.bufferBytes = bufferBytes;
+        this.nanosPerByte = (long) (1_000_000_000L / (format.getFrameRate() * format.getFrameSize()));
+        this.nextWriteAt = System.nanoTime();
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) {
+        if (!realtime) {
+            return;
+        }
+        nextWriteAt = Math.max(nextWriteAt, System.nanoTime()) + length * nanosPerByte;
+        long wait = nextWriteAt - System.nanoTime() - (long) bufferBytes * nanosPerByte;
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    @Override
+    public int available() {
+        if (!realtime) {
+            return bufferBytes;
+        }
+        long queued = Math.max(0, nextWriteAt - System.nanoTime()) / Math.max(1, nanosPerByte);
+        return (int) Math.max(0, bufferBytes - queued);
+    }
+
+    @Override
+    public void close() {
+    }
+}
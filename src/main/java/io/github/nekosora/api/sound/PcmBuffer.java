@@ -0,0 +1,176 @@
+package io.github.nekosora.api.sound;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * 已解码的 PCM 音频数据
+ * 派生的浮点数据（立体声、变速不变调）也计入内存占用，增加或淘汰时通知 SoundBank
+ */
+public final class PcmBuffer {
+    // 变速不变调结果的速度精度（0.01）和每个音频最多缓存的速度数量
+    private static final double STRETCH_SPEED_STEP = 0.01;
+    private static final int MAX_STRETCHED_SPEEDS = 4;
+
+    private final AudioFormat format;
+    private final byte[] data;
+    private volatile float[] stereoSamples; // 软件混音用的浮点立体声数据（首次使用时转换）
+    // 变速不变调的结果（按量化后的速度缓存，最久未使用的先淘汰），受 this 锁保护
+    private final LinkedHashMap<Double, float[]> stretchedSamples = new LinkedHashMap<>(8, 0.75f, true);
+    private volatile LongConsumer sizeListener; // 派生数据增减的字节数
+
+    public PcmBuffer(AudioFormat format, byte[] data) {
+        this.format = format;
+        this.data = data;
+    }
+
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getLength() {
+        return data.length;
+    }
+
+    /**
+     * 当前占用的内存（PCM 数据加上已生成的派生浮点数据）
+     */
+    public synchronized long getMemoryBytes() {
+        long bytes = data.length;
+        float[] samples = stereoSamples;
+        if (samples != null) {
+            bytes += samples.length * 4L;
+        }
+        for (float[] stretched : stretchedSamples.values()) {
+            bytes += stretched.length * 4L;
+        }
+        return bytes;
+    }
+
+    /**
+     * 派生数据增加（正数）或淘汰（负数）时收到字节数，传入 null 取消
+     */
+    void setSizeListener(LongConsumer sizeListener) {
+        this.sizeListener = sizeListener;
+    }
+
+    LongConsumer getSizeListener() {
+        return sizeListener;
+    }
+
+    private void notifySize(long delta) {
+        LongConsumer listener = sizeListener;
+        if (listener != null) {
+            listener.accept(delta);
+        }
+    }
+
+    /**
+     * 转换为 -1.0~1.0 的立体声交错浮点数据（单声道复制到两个声道，多于两个声道只取前两个）
+     */
+    public float[] getStereoSamples() {
+        float[] samples = stereoSamples;
+        if (samples != null) {
+            return samples;
+        }
+        synchronized (this) {
+            samples = stereoSamples;
+            if (samples != null) {
+                return samples;
+            }
+            samples = toStereoFloat();
+            stereoSamples = samples;
+        }
+        // 在锁外通知，SoundBank 会在持有缓存锁时读取 getMemoryBytes
+        notifySize(samples.length * 4L);
+        return samples;
+    }
+
+    /**
+     * 变速不变调后的立体声数据
+     * 速度量化到 0.01，每个音频只保留最近使用的几个速度，避免任意速度把缓存撑大
+     */
+    public float[] getStretchedSamples(double speed) {
+        double quantized = Math.max(STRETCH_SPEED_STEP, Math.round(speed / STRETCH_SPEED_STEP) * STRETCH_SPEED_STEP);
+        float[] stereo = getStereoSamples();
+        float[] stretched;
+        long delta;
+        synchronized (this) {
+            stretched = stretchedSamples.get(quantized);
+            if (stretched != null) {
+                return stretched;
+            }
+            stretched = TimeStretcher.stretch(stereo, quantized, format.getSampleRate());
+            stretchedSamples.put(quantized, stretched);
+            delta = stretched.length * 4L;
+
+            Iterator<Map.Entry<Double, float[]>> iterator = stretchedSamples.entrySet().iterator();
+            while (stretchedSamples.size() > MAX_STRETCHED_SPEEDS && iterator.hasNext()) {
+                delta -= iterator.next().getValue().length * 4L;
+                iterator.remove();
+            }
+        }
+        notifySize(delta);
+        return stretched;
+    }
+
+    /**
+     * 把浮点立体声数据编码为 16 位有符号小端 PCM
+     */
+    public static PcmBuffer fromStereoSamples(float[] stereo, float sampleRate) {
+        byte[] data = new byte[stereo.length * 2];
+        for (int i = 0; i < stereo.length; i++) {
+            int value = (int) (Math.max(-1f, Math.min(1f, stereo[i])) * 32767f);
+            data[i * 2] = (byte) value;
+            data[i * 2 + 1] = (byte) (value >> 8);
+        }
+        PcmBuffer buffer = new PcmBuffer(new AudioFormat(sampleRate, 16, 2, true, false), data);
+        buffer.stereoSamples = stereo;
+        return buffer;
+    }
+
+    private float[] toStereoFloat() {
+        int bytesPerSample = format.getSampleSizeInBits() / 8;
+        int channels = format.getChannels();
+        int frameSize = format.getFrameSize();
+        int frames = data.length / frameSize;
+        boolean bigEndian = format.isBigEndian();
+        boolean signed = format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED;
+        float scale = 1f / (1L << (bytesPerSample * 8 - 1));
+
+        float[] samples = new float[frames * 2];
+        for (int frame = 0; frame < frames; frame++) {
+            int base = frame * frameSize;
+            float left = readSample(base, bytesPerSample, bigEndian, signed) * scale;
+            float right = channels > 1
+                    ? readSample(base + bytesPerSample, bytesPerSample, bigEndian, signed) * scale
+                    : left;
+            samples[frame * 2] = left;
+            samples[frame * 2 + 1] = right;
+        }
+        return samples;
+    }
+
+    private int readSample(int offset, int bytesPerSample, boolean bigEndian, boolean signed) {
+        int value = 0;
+        for (int i = 0; i < bytesPerSample; i++) {
+            int b = data[offset + (bigEndian ? i : bytesPerSample - 1 - i)] & 0xFF;
+            value = (value << 8) | b;
+        }
+        int bits = bytesPerSample * 8;
+        if (signed) {
+            // 符号扩展
+            value = (value << (32 - bits)) >> (32 - bits);
+        } else {
+            value -= 1 << (bits - 1);
+        }
+        return value;
+    }
+}
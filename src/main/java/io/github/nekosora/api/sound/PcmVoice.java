@@ -0,0 +1,56 @@
+package io.github.nekosora.api.sound;
+
+/**
+ * 播放内存中 PCM 数据的发声源，音量、声相和速度都在软件中处理
+ */
+class PcmVoice extends MixerVoice {
+    private final float[] samples; // 立体声交错
+    private final int frameCount;
+    private final float sampleRate;
+    private final double speed;
+    private final Resampler resampler;
+    private double position = 0;
+
+    PcmVoice(PcmBuffer pcm, Sound sound, Resampler resampler) {
+        double requestedSpeed = sound.getSpeed() > 0 ? sound.getSpeed() : 1.0;
+        if (sound.isPreservePitch() && requestedSpeed != 1.0) {
+            // 变速不变调：预先拉伸，播放时按原速
+            this.samples = pcm.getStretchedSamples(requestedSpeed);
+            this.speed = 1.0;
+        } else {
+            this.samples = pcm.getStereoSamples();
+            this.speed = requestedSpeed;
+        }
+        this.frameCount = samples.length / 2;
+        this.sampleRate = pcm.getFormat().getSampleRate();
+        this.resampler = resampler;
+        this.volume = (float) Math.max(0.0, sound.getVolume());
+        this.balance = (float) Math.max(0.0, Math.min(1.0, sound.getBalance()));
+    }
+
+    @Override
+    boolean render(float[] mix, int frames, float outputRate) {
+        if (isFadedOut()) {
+            return false;
+        }
+
+        double step = speed * sampleRate / outputRate;
+        float left = leftGain();
+        float right = rightGain();
+        float envelope = envelopeStart();
+        float envelopeStep = (advanceEnvelope(frames, outputRate) - envelope) / frames;
+
+        for (int i = 0; i < frames; i++) {
+            if (position >= frameCount) {
+                return false;
+            }
+            float l = resampler.interpolate(samples, frameCount, position, 0);
+            float r = resampler.interpolate(samples, frameCount, position, 1);
+            mix[i * 2] += l * left * envelope;
+            mix[i * 2 + 1] += r * right * envelope;
+            envelope += envelopeStep;
+            position += step;
+        }
+        return true;
+    }
+}
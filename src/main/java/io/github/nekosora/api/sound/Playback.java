@@ -0,0 +1,12 @@
+package io.github.nekosora.api.sound;
+
+/**
+ * SoundHandle 背后的实际播放（混音器中的发声源或 Clip）
+ */
+interface Playback {
+    /**
+     * 在指定时间内把音量线性变化到目标值
+     * @param stopAfter 到达目标后停止并释放
+     */
+    void rampTo(float target, double seconds, boolean stopAfter);
+}
@@ -0,0 +1,92 @@
+package io.github.nekosora.api.sound;
+
+/**
+ * 软件重采样（变速同时变调），在所有平台上结果一致，不依赖混音器的 SAMPLE_RATE 控件
+ * LINEAR: 线性插值，开销最低
+ * SINC: 8 抽头 Lanczos 窗 sinc 插值，音质更好
+ */
+public enum Resampler {
+    LINEAR {
+        @Override
+        public float interpolate(float[] stereo, int frameCount, double position, int channel) {
+            int index = (int) position;
+            float fraction = (float) (position - index);
+            float s0 = sampleAt(stereo, frameCount, index, channel);
+            float s1 = sampleAt(stereo, frameCount, index + 1, channel);
+            return s0 + (s1 - s0) * fraction;
+        }
+    },
+    SINC {
+        @Override
+        public float interpolate(float[] stereo, int frameCount, double position, int channel) {
+            int index = (int) position;
+            int phase = (int) ((position - index) * SINC_PHASES);
+            float[] kernel = SINC_TABLE[phase];
+            float sum = 0f;
+            for (int tap = 0; tap < SINC_TAPS; tap++) {
+                sum += sampleAt(stereo, frameCount, index + tap - SINC_HALF + 1, channel) * kernel[tap];
+            }
+            return sum;
+        }
+    };
+
+    private static final int SINC_TAPS = 8;
+    private static final int SINC_HALF = SINC_TAPS / 2;
+    private static final int SINC_PHASES = 256;
+    private static final float[][] SINC_TABLE = buildSincTable();
+
+    /**
+     * 读取立体声交错数据中 position 处（可为小数帧）某个声道的值
+     */
+    public abstract float interpolate(float[] stereo, int frameCount, double position, int channel);
+
+    /**
+     * 整段重采样：输出长度为输入的 1/speed，播放时音高随速度变化
+     */
+    public float[] resample(float[] stereo, double speed) {
+        int frameCount = stereo.length / 2;
+        int outputFrames = (int) (frameCount / speed);
+        float[] output = new float[outputFrames * 2];
+        double position = 0;
+        for (int i = 0; i < outputFrames; i++) {
+            output[i * 2] = interpolate(stereo, frameCount, position, 0);
+            output[i * 2 + 1] = interpolate(stereo, frameCount, position, 1);
+            position += speed;
+        }
+        return output;
+    }
+
+    static float sampleAt(float[] stereo, int frameCount, int frame, int channel) {
+        if (frame < 0 || frame >= frameCount) {
+            return 0f;
+        }
+        return stereo[frame * 2 + channel];
+    }
+
+    private static float[][] buildSincTable() {
+        float[][] table = new float[SINC_PHASES + 1][SINC_TAPS];
+        for (int phase = 0; phase <= SINC_PHASES; phase++) {
+            double fraction = (double) phase / SINC_PHASES;
+            double total = 0;
+            for (int tap = 0; tap < SINC_TAPS; tap++) {
+                double x = tap - SINC_HALF + 1 - fraction;
+                double value = sinc(x) * sinc(x / SINC_HALF); // Lanczos 窗
+                table[phase][tap] = (float) value;
+                total += value;
+            }
+            // 归一化，保证直流增益为 1
+            for (int tap = 0; tap < SINC_TAPS; tap++) {
+                table[phase][tap] /= (float) total;
+            }
+        }
+        return table;
+    }
+
+    private static double sinc(double x) {
+        if (Math.abs(x) < 1e-9) {
+            return 1.0;
+        }
+        double px = Math.PI * x;
+        return Math.sin(px) / px;
+    }
+}
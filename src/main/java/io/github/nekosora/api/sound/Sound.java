@@ -7,12 +7,21 @@ public class Sound {
     private final double speed;
     private final double volume;
     private final double balance;
+    private final boolean preservePitch;
 
     public Sound(String path, double speed, double volume, double balance) {
+        this(path, speed, volume, balance, false);
+    }
+
+    /**
+     * @param preservePitch 变速时是否保持音高（时间拉伸），否则变速同时变调
+     */
+    public Sound(String path, double speed, double volume, double balance, boolean preservePitch) {
         this.path = path;
         this.speed = speed;
         this.volume = volume;
         this.balance = balance;
+        this.preservePitch = preservePitch;
     }
 
     public double getBalance() {
@@ -31,12 +40,17 @@ public class Sound {
         return path;
     }
 
+    public boolean isPreservePitch() {
+        return preservePitch;
+    }
+
     public JsonObject toJson() {
         JsonObject jsonObject = new JsonObject();
         jsonObject.addProperty("path", path);
         jsonObject.addProperty("speed", speed);
         jsonObject.addProperty("volume", volume);
         jsonObject.addProperty("balance", balance);
+        jsonObject.addProperty("preservePitch", preservePitch);
         return jsonObject;
     }
 
@@ -45,7 +59,8 @@ public class Sound {
                 jsonObject.get("path").getAsString(),
                 jsonObject.get("speed").getAsDouble(),
                 jsonObject.get("volume").getAsDouble(),
-                jsonObject.get("balance").getAsDouble()
+                jsonObject.get("balance").getAsDouble(),
+                jsonObject.has("preservePitch") && jsonObject.get("preservePitch").getAsBoolean()
         );
     }
 }
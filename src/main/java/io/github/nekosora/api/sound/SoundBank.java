@@ -0,0 +1,175 @@
+package io.github.nekosora.api.sound;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * 音频缓存：每个路径只解码一次，之后直接从内存中的 PCM 数据播放
+ * 按字节数限制大小（包括播放时生成的浮点数据和变速结果），超出时淘汰最久未使用的音频
+ */
+public class SoundBank {
+    private static final Logger log = LoggerFactory.getLogger(SoundBank.class);
+
+    // 默认缓存上限（32MB）
+    private static volatile long maxBytes = 32L * 1024 * 1024;
+
+    private static final LinkedHashMap<String, PcmBuffer> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedBytes = 0;
+    private static final Map<String, CompletableFuture<PcmBuffer>> decodingPaths = new ConcurrentHashMap<>();
+
+    /**
+     * 把缓存中音频的派生数据增减计入 cachedBytes（被淘汰后不再计入）
+     */
+    private static final class SizeTracker implements LongConsumer {
+        private final PcmBuffer buffer;
+
+        SizeTracker(PcmBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void accept(long delta) {
+            synchronized (cache) {
+                if (buffer.getSizeListener() == this) {
+                    cachedBytes += delta;
+                    evict();
+                }
+            }
+        }
+    }
+
+    public static void setMaxBytes(long maxBytes) {
+        SoundBank.maxBytes = maxBytes;
+        synchronized (cache) {
+            evict();
+        }
+    }
+
+    /**
+     * 启动时预加载音频，避免第一次播放时解码
+     */
+    public static void preload(Sound... sounds) {
+        for (Sound sound : sounds) {
+            get(sound.getPath());
+        }
+    }
+
+    /**
+     * 获取解码后的音频数据，未缓存时从 resource/audios 下读取并解码
+     * @return PCM 数据，文件不存在或解码失败时返回 null
+     */
+    public static PcmBuffer get(String path) {
+        synchronized (cache) {
+            PcmBuffer cached = cache.get(path);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // 同一路径同时只解码一次，其它线程等待同一个结果
+        CompletableFuture<PcmBuffer> decoding = new CompletableFuture<>();
+        CompletableFuture<PcmBuffer> inFlight = decodingPaths.putIfAbsent(path, decoding);
+        if (inFlight != null) {
+            return inFlight.join();
+        }
+
+        PcmBuffer decoded = null;
+        try {
+            // 上一次解码可能刚好在检查缓存之后完成
+            synchronized (cache) {
+                decoded = cache.get(path);
+            }
+            if (decoded == null) {
+                long decodeStart = System.nanoTime();
+                decoded = decode(path);
+                SoundMetrics.decode.record(System.nanoTime() - decodeStart);
+
+                if (decoded != null) {
+                    synchronized (cache) {
+                        decoded.setSizeListener(new SizeTracker(decoded));
+                        cache.put(path, decoded);
+                        cachedBytes += decoded.getMemoryBytes();
+                        evict();
+                    }
+                }
+            }
+        } finally {
+            // 先给出结果再移除，等待中的线程和随后的线程都不会重复解码
+            decoding.complete(decoded);
+            decodingPaths.remove(path, decoding);
+        }
+        return decoded;
+    }
+
+    public static void clear() {
+        synchronized (cache) {
+            for (PcmBuffer buffer : cache.values()) {
+                buffer.setSizeListener(null);
+            }
+            cache.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    private static void evict() {
+        Iterator<Map.Entry<String, PcmBuffer>> iterator = cache.entrySet().iterator();
+        // 至少保留最近使用的一个
+        while (cachedBytes > maxBytes && cache.size() > 1 && iterator.hasNext()) {
+            PcmBuffer eldest = iterator.next().getValue();
+            eldest.setSizeListener(null);
+            cachedBytes -= eldest.getMemoryBytes();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 当前缓存占用的字节数
+     */
+    public static long getCachedBytes() {
+        synchronized (cache) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * 读取并解码为 PCM（非 PCM 格式会先转换为 16 位有符号 PCM）
+     */
+    private static PcmBuffer decode(String path) {
+        InputStream resource = SoundBank.class.getClassLoader().getResourceAsStream("audios/" + path);
+        if (resource == null) {
+            log.error("Audio file not found: {}", path);
+            return null;
+        }
+
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(new BufferedInputStream(resource))) {
+            AudioFormat sourceFormat = source.getFormat();
+            AudioInputStream pcmStream = source;
+
+            if (sourceFormat.getEncoding() != AudioFormat.Encoding.PCM_SIGNED
+                    && sourceFormat.getEncoding() != AudioFormat.Encoding.PCM_UNSIGNED) {
+                AudioFormat pcmFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED,
+                        sourceFormat.getSampleRate(), 16, sourceFormat.getChannels(),
+                        sourceFormat.getChannels() * 2, sourceFormat.getSampleRate(), false);
+                pcmStream = AudioSystem.getAudioInputStream(pcmFormat, source);
+            }
+
+            byte[] data = pcmStream.readAllBytes();
+            return new PcmBuffer(pcmStream.getFormat(), data);
+        } catch (Exception e) {
+            log.error("Failed to decode audio {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+}
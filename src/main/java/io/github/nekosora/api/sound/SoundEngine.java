@@ -4,8 +4,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sound.sampled.*;
-import javax.sound.sampled.spi.AudioFileReader;
-import java.io.InputStream;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -13,94 +11,249 @@ public class SoundEngine {
     private static final ExecutorService soundPool = Executors.newFixedThreadPool(4);
     private static final Logger log = LoggerFactory.getLogger(SoundEngine.class);
 
+    // 最大同时发声数（超过时抢占最早的发声源）
+    private static final int MAX_VOICES = 32;
+
+    // 软件混音器（null 表示尚未启动或不可用，此时退回到每次播放一个 Clip）
+    private static volatile SoundMixer mixer;
+    private static volatile boolean mixerUnavailable = false;
+
+    // 相同音效的触发去重和限流
+    private static final SoundThrottler throttler = new SoundThrottler();
+
+    /**
+     * 设置所有音效默认的触发限制
+     */
+    public static void setDefaultThrottle(SoundThrottle throttle) {
+        throttler.setDefault(throttle);
+    }
+
+    /**
+     * 为某个音效单独设置触发限制，传入 null 恢复默认
+     */
+    public static void setThrottle(Sound sound, SoundThrottle throttle) {
+        throttler.setThrottle(sound.getPath(), throttle);
+    }
+
+    // 变速使用的重采样算法
+    private static volatile Resampler resampler = Resampler.LINEAR;
+
+    public static void setResampler(Resampler resampler) {
+        SoundEngine.resampler = resampler;
+    }
+
+    public static Resampler getResampler() {
+        return resampler;
+    }
+
+    /**
+     * 指定混音输出（例如测试时使用 NullOutput），会替换当前的混音器
+     */
+    public static synchronized void setOutput(MixerOutput output) throws LineUnavailableException {
+        if (mixer != null) {
+            mixer.stop();
+        }
+        SoundMixer newMixer = new SoundMixer(output, MAX_VOICES);
+        newMixer.start();
+        mixer = newMixer;
+        mixerUnavailable = false;
+    }
+
+    public static SoundMixer getMixer() {
+        return mixer;
+    }
+
+    /**
+     * 获取混音器，首次调用时打开默认输出线路
+     */
+    private static SoundMixer obtainMixer() {
+        SoundMixer current = mixer;
+        if (current != null || mixerUnavailable) {
+            return current;
+        }
+        synchronized (SoundEngine.class) {
+            if (mixer == null && !mixerUnavailable) {
+                try {
+                    long acquireStart = System.nanoTime();
+                    SoundMixer newMixer = new SoundMixer(new LineOutput(), MAX_VOICES);
+                    newMixer.start();
+                    SoundMetrics.lineAcquire.record(System.nanoTime() - acquireStart);
+                    mixer = newMixer;
+                } catch (Exception e) {
+                    mixerUnavailable = true;
+                    log.warn("Sound mixer unavailable, falling back to Clip playback: {}", e.getMessage());
+                }
+            }
+            return mixer;
+        }
+    }
+
+    // 当前的背景音乐（流式播放）
+    private static volatile StreamingVoice currentMusic;
+
+    /**
+     * 流式播放 resource/audios 下的音乐/环境音（.ogg / .wav），内存占用与曲目长度无关
+     * 正在播放的音乐会在 crossfadeSeconds 内淡出，新的音乐同时淡入
+     * @param music 路径、音量和声相（速度对流式播放无效）
+     * @param loop 是否循环
+     * @return 播放句柄
+     */
+    public static synchronized SoundHandle playMusic(Sound music, boolean loop, double crossfadeSeconds) {
+        SoundHandle handle = new SoundHandle(music);
+        SoundMixer soundMixer = obtainMixer();
+        if (soundMixer == null) {
+            log.warn("Sound mixer unavailable, cannot stream {}", music.getPath());
+            handle.complete();
+            return handle;
+        }
+
+        StreamingVoice voice = new StreamingVoice(music, loop, SoundMixer.FORMAT.getSampleRate());
+        voice.setHandle(handle);
+        if (crossfadeSeconds > 0) {
+            voice.setInitialEnvelope(0f);
+            voice.rampTo(1f, crossfadeSeconds, false);
+        }
+        stopMusic(crossfadeSeconds);
+
+        voice.startDecoding();
+        soundMixer.play(voice);
+        currentMusic = voice;
+        return handle;
+    }
+
+    /**
+     * 停止背景音乐
+     * @param fadeSeconds 淡出时长，0 表示立即停止
+     */
+    public static synchronized void stopMusic(double fadeSeconds) {
+        StreamingVoice music = currentMusic;
+        if (music == null) {
+            return;
+        }
+        music.rampTo(0f, Math.max(0, fadeSeconds), true);
+        currentMusic = null;
+    }
+
+    /**
+     * 背景音乐跳转到指定位置（秒）
+     */
+    public static void seekMusic(double seconds) {
+        StreamingVoice music = currentMusic;
+        if (music != null) {
+            music.seek(seconds);
+        }
+    }
+
     /**
      * 读取resource/audios下的内容并播放 (.wav)
      * @param sound 包含路径和播放设置的Sound对象
      */
     public static void playSound(Sound sound) {
+        play(sound);
+    }
+
+    /**
+     * 播放音效并返回句柄，可用于停止、淡出、调整音量和等待播放结束
+     * 同一音效在合并窗口/最短间隔内的重复触发会返回已有的句柄，而不会再播放一次
+     * @param sound 包含路径和播放设置的Sound对象
+     */
+    public static SoundHandle play(Sound sound) {
+        long triggerNanos = System.nanoTime();
+        SoundHandle handle = new SoundHandle(sound);
+        SoundHandle admitted = throttler.admit(sound, handle);
+        if (admitted != handle) {
+            // 与之前的触发合并，不再重复播放
+            return admitted;
+        }
+
         soundPool.submit(() -> {
+            SoundMetrics.queueWait.record(System.nanoTime() - triggerNanos);
             try {
-                // 从 Sound 对象获取路径
-                InputStream audioStream = SoundEngine.class.getClassLoader()
-                        .getResourceAsStream("audios/" + sound.getPath());
-
-                if (audioStream == null) {
-                    System.err.println("音频文件未找到: " + sound.getPath());
+                // 从缓存获取解码后的 PCM 数据（每个路径只解码一次）
+                PcmBuffer pcm = SoundBank.get(sound.getPath());
+                if (pcm == null) {
+                    handle.complete();
                     return;
                 }
 
-                AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(audioStream);
-                AudioFormat format = audioInputStream.getFormat();
-
-                DataLine.Info info = new DataLine.Info(Clip.class, format);
-                Clip clip = (Clip) AudioSystem.getLine(info);
-
-                clip.open(audioInputStream);
-
-                // 设置音量 (Volume)
-                // sound.getVolume() 范围: 0.0 (静音) to 1.0 (最大)
-                if (clip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
-                    FloatControl volumeControl = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-                    if (sound.getVolume() <= 0.0001) {
-                        volumeControl.setValue(volumeControl.getMinimum()); // 静音
-                    } else {
-                        // 将 0.0-1.0 的线性音量转换为对数分贝 (dB)
-                        // 公式: 20 * log10(volume)
-                        float dB = (float) (Math.log10(sound.getVolume()) * 20.0);
-                        // 确保值在控件允许的范围内
-                        volumeControl.setValue(Math.max(volumeControl.getMinimum(), Math.min(volumeControl.getMaximum(), dB)));
-                    }
+                // 优先使用软件混音器，不再为每次播放申请 Clip
+                SoundMixer soundMixer = obtainMixer();
+                if (soundMixer != null) {
+                    PcmVoice voice = new PcmVoice(pcm, sound, resampler);
+                    voice.triggerNanos = triggerNanos;
+                    voice.setHandle(handle);
+                    soundMixer.play(voice);
+                    return;
                 }
 
-                // 设置声相 (Balance)
-                // sound.getBalance() 范围: 0.0 (左) - 0.5 (中) - 1.0 (右)
-                if (clip.isControlSupported(FloatControl.Type.PAN)) {
-                    FloatControl panControl = (FloatControl) clip.getControl(FloatControl.Type.PAN);
-                    // 将 0.0~1.0 映射到 API 的 -1.0~1.0
-                    // 公式: (balance * 2.0) - 1.0
-                    float pan = (float) (sound.getBalance() * 2.0 - 1.0);
-                    // 确保值在 -1.0f 到 1.0f 之间
-                    pan = Math.max(-1.0f, Math.min(1.0f, pan));
-                    panControl.setValue(pan);
-                }
+                playWithClip(pcm, sound, handle, triggerNanos);
+            } catch (Exception e) {
+                log.error("Failed to play sound {}: {}", sound.getPath(), e.getMessage());
+                handle.complete();
+            }
+        });
+        return handle;
+    }
 
-                // 设置速度 (Speed) - 这也会同时改变音高 (Pitch)
-                // sound.getSpeed() 范围: 1.0 (正常), 1.5 (1.5倍速), 0.8 (0.8倍速)
-                if (clip.isControlSupported(FloatControl.Type.SAMPLE_RATE)) {
-                    try {
-                        FloatControl sampleRateControl = (FloatControl) clip.getControl(FloatControl.Type.SAMPLE_RATE);
-                        float originalRate = sampleRateControl.getValue();
-                        float newRate = (float) (originalRate * sound.getSpeed());
-
-                        // 确保新速率在允许的范围内
-                        newRate = Math.max(sampleRateControl.getMinimum(), Math.min(sampleRateControl.getMaximum(), newRate));
-
-                        sampleRateControl.setValue(newRate);
-                    } catch (IllegalArgumentException e) {
-                        SoundEngine.log.error("Set sample (Speed) failed: {}", e.getMessage());
-                        // 某些音频格式可能不支持动态更改采样率
-                    }
-                }
+    /**
+     * 混音器不可用时使用 Clip 播放（线路由 ClipPlayback 登记并保证释放）
+     */
+    private static void playWithClip(PcmBuffer pcm, Sound sound, SoundHandle handle, long triggerNanos) throws LineUnavailableException {
+        // 速度在软件中处理，不依赖 SAMPLE_RATE 控件
+        PcmBuffer clipData = applySpeed(pcm, sound);
+        long acquireStart = System.nanoTime();
+        DataLine.Info info = new DataLine.Info(Clip.class, clipData.getFormat());
+        Clip clip = (Clip) AudioSystem.getLine(info);
 
-                clip.start();
+        try {
+            clip.open(clipData.getFormat(), clipData.getData(), 0, clipData.getLength());
+        } catch (LineUnavailableException | RuntimeException e) {
+            clip.close();
+            throw e;
+        }
+        SoundMetrics.lineAcquire.record(System.nanoTime() - acquireStart);
 
-                // 等待播放完成
-                clip.addLineListener(event -> {
-                    if (event.getType() == LineEvent.Type.STOP) {
-                        clip.close();
-                    }
-                });
+        // 设置声相 (Balance)
+        // sound.getBalance() 范围: 0.0 (左) - 0.5 (中) - 1.0 (右)
+        if (clip.isControlSupported(FloatControl.Type.PAN)) {
+            FloatControl panControl = (FloatControl) clip.getControl(FloatControl.Type.PAN);
+            // 将 0.0~1.0 映射到 API 的 -1.0~1.0
+            // 公式: (balance * 2.0) - 1.0
+            float pan = (float) (sound.getBalance() * 2.0 - 1.0);
+            // 确保值在 -1.0f 到 1.0f 之间
+            pan = Math.max(-1.0f, Math.min(1.0f, pan));
+            panControl.setValue(pan);
+        }
 
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        // 音量 (Volume) 由 ClipPlayback 通过 MASTER_GAIN 设置，以便支持淡入淡出
+        ClipPlayback.start(clip, handle, (float) sound.getVolume());
+        SoundMetrics.startLatency.record(System.nanoTime() - triggerNanos);
+    }
+
+    /**
+     * 按 Sound 的速度处理 PCM 数据（变调重采样或变速不变调）
+     */
+    private static PcmBuffer applySpeed(PcmBuffer pcm, Sound sound) {
+        double speed = sound.getSpeed();
+        if (speed <= 0 || speed == 1.0) {
+            return pcm;
+        }
+        float[] processed = sound.isPreservePitch()
+                ? pcm.getStretchedSamples(speed)
+                : resampler.resample(pcm.getStereoSamples(), speed);
+        return PcmBuffer.fromStereoSamples(processed, pcm.getFormat().getSampleRate());
     }
 
     /**
      * 关闭音频引擎
      */
     public static void shutdown() {
+        SoundMetrics.logSummary();
         soundPool.shutdown();
+        SoundMixer current = mixer;
+        if (current != null) {
+            current.stop();
+        }
+        ClipPlayback.releaseAll();
     }
 }
\ No newline at end of file
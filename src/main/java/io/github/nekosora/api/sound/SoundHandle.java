@@ -0,0 +1,89 @@
+package io.github.nekosora.api.sound;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 一次播放的句柄，可用于停止、淡出、调整音量以及等待播放结束
+ * 在实际开始播放之前发出的操作会在开始时补上
+ */
+public final class SoundHandle {
+    // 立即停止时使用的极短淡出，避免爆音
+    private static final double STOP_FADE_SECONDS = 0.005;
+
+    private final Sound sound;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private Playback playback;
+    private float pendingTarget;
+    private double pendingSeconds;
+    private boolean pendingStopAfter;
+    private boolean hasPending = false;
+
+    SoundHandle(Sound sound) {
+        this.sound = sound;
+    }
+
+    public Sound getSound() {
+        return sound;
+    }
+
+    /**
+     * 立即停止
+     */
+    public void stop() {
+        request(0f, STOP_FADE_SECONDS, true);
+    }
+
+    /**
+     * 在指定时间内淡出并停止
+     */
+    public void fadeOut(double seconds) {
+        request(0f, Math.max(STOP_FADE_SECONDS, seconds), true);
+    }
+
+    /**
+     * 在指定时间内把音量变化到 target（相对于 Sound 的音量，1.0 为原音量）
+     */
+    public void rampVolume(float target, double seconds) {
+        request(Math.max(0f, target), Math.max(0, seconds), false);
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * 播放结束（正常结束、被停止、被抢占或播放失败）时完成
+     */
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    private synchronized void request(float target, double seconds, boolean stopAfter) {
+        if (completion.isDone()) {
+            return;
+        }
+        if (playback != null) {
+            playback.rampTo(target, seconds, stopAfter);
+            return;
+        }
+        pendingTarget = target;
+        pendingSeconds = seconds;
+        pendingStopAfter = stopAfter;
+        hasPending = true;
+    }
+
+    /**
+     * 播放开始时绑定实际的播放对象
+     */
+    synchronized void attach(Playback playback) {
+        this.playback = playback;
+        if (hasPending) {
+            playback.rampTo(pendingTarget, pendingSeconds, pendingStopAfter);
+            hasPending = false;
+        }
+    }
+
+    void complete() {
+        completion.complete(null);
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.nekosora.api.sound;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 音频延迟与欠载统计
+ * 记录排队等待、解码、线路获取、开始播放的延迟，以及同时发声数和输出欠载次数
+ * 通过日志输出（退出游戏时输出一次汇总）
+ */
+public class SoundMetrics {
+    private static final Logger log = LoggerFactory.getLogger(SoundMetrics.class);
+
+    public static final LatencyRecorder queueWait = new LatencyRecorder("queueWait");
+    public static final LatencyRecorder decode = new LatencyRecorder("decode");
+    public static final LatencyRecorder lineAcquire = new LatencyRecorder("lineAcquire");
+    public static final LatencyRecorder startLatency = new LatencyRecorder("startLatency");
+
+    private static final AtomicLong mixerUnderruns = new AtomicLong();
+    private static final AtomicLong streamUnderruns = new AtomicLong();
+    private static volatile int peakVoices = 0;
+
+    /**
+     * 最近若干次延迟的采样（环形保存，统计时再排序）
+     */
+    public static class LatencyRecorder {
+        private static final int CAPACITY = 1024;
+
+        private final String name;
+        private final long[] samples = new long[CAPACITY];
+        private long count = 0;
+
+        LatencyRecorder(String name) {
+            this.name = name;
+        }
+
+        public synchronized void record(long nanos) {
+            samples[(int) (count % CAPACITY)] = nanos;
+            count++;
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * @param percentile 0-100
+         * @return 对应百分位的延迟（纳秒），没有数据时返回 0
+         */
+        public synchronized long percentile(double percentile) {
+            int size = (int) Math.min(count, CAPACITY);
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+            return sorted[Math.max(0, Math.min(size - 1, index))];
+        }
+
+        synchronized void reset() {
+            count = 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s(n=%d p50=%.2fms p95=%.2fms p99=%.2fms)", name, getCount(),
+                    percentile(50) / 1e6, percentile(95) / 1e6, percentile(99) / 1e6);
+        }
+    }
+
+    static void mixerUnderrun() {
+        mixerUnderruns.incrementAndGet();
+    }
+
+    static void streamUnderrun() {
+        streamUnderruns.incrementAndGet();
+    }
+
+    static void activeVoices(int voices) {
+        if (voices > peakVoices) {
+            peakVoices = voices;
+        }
+    }
+
+    public static long getMixerUnderruns() {
+        return mixerUnderruns.get();
+    }
+
+    public static long getStreamUnderruns() {
+        return streamUnderruns.get();
+    }
+
+    public static int getPeakVoices() {
+        return peakVoices;
+    }
+
+    public static int getActiveVoices() {
+        SoundMixer mixer = SoundEngine.getMixer();
+        return mixer != null ? mixer.getActiveVoiceCount() : 0;
+    }
+
+    public static void reset() {
+        queueWait.reset();
+        decode.reset();
+        lineAcquire.reset();
+        startLatency.reset();
+        mixerUnderruns.set(0);
+        streamUnderruns.set(0);
+        peakVoices = 0;
+    }
+
+    public static String report() {
+        return queueWait + ", " + decode + ", " + lineAcquire + ", " + startLatency
+                + ", activeVoices=" + getActiveVoices()
+                + ", peakVoices=" + peakVoices
+                + ", mixerUnderruns=" + mixerUnderruns.get()
+                + ", streamUnderruns=" + streamUnderruns.get();
+    }
+
+    public static void logSummary() {
+        log.info("Sound metrics: {}", report());
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.nekosora.api.sound;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 软件混音器
+ * 只占用一条长期打开的输出线路，在实时循环中把所有发声源混合后写出
+ * 超过最大同时发声数时抢占最早开始的发声源
+ */
+public class SoundMixer {
+    private static final Logger log = LoggerFactory.getLogger(SoundMixer.class);
+
+    public static final AudioFormat FORMAT = new AudioFormat(44100f, 16, 2, true, false);
+    private static final int BLOCK_FRAMES = 512; // 约 11.6ms
+    private static final int LINE_BUFFER_BLOCKS = 4;
+
+    private final MixerOutput output;
+    private final int maxVoices;
+    private final Queue<MixerVoice> incoming = new ConcurrentLinkedQueue<>();
+    private final List<MixerVoice> active = new ArrayList<>(); // 仅由混音线程访问
+    private volatile int activeCount = 0;
+    private volatile boolean running = false;
+    private int lineBufferBytes;
+    private boolean primed = false; // 输出缓冲区是否已经填满过一次（之前的空缓冲不算欠载）
+    private Thread thread;
+
+    public SoundMixer(MixerOutput output, int maxVoices) {
+        this.output = output;
+        this.maxVoices = maxVoices;
+    }
+
+    /**
+     * 打开输出线路并启动混音线程
+     */
+    public synchronized void start() throws LineUnavailableException {
+        if (running) {
+            return;
+        }
+        lineBufferBytes = BLOCK_FRAMES * FORMAT.getFrameSize() * LINE_BUFFER_BLOCKS;
+        output.open(FORMAT, lineBufferBytes);
+        running = true;
+        primed = false;
+        thread = new Thread(this::mixLoop, "SoundMixer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        output.close();
+    }
+
+    void play(MixerVoice voice) {
+        incoming.add(voice);
+    }
+
+    public int getActiveVoiceCount() {
+        return activeCount;
+    }
+
+    public int getMaxVoices() {
+        return maxVoices;
+    }
+
+    private void mixLoop() {
+        float[] mix = new float[BLOCK_FRAMES * 2];
+        byte[] out = new byte[BLOCK_FRAMES * FORMAT.getFrameSize()];
+        float rate = FORMAT.getSampleRate();
+
+        try {
+            while (running) {
+                acceptIncoming();
+
+                Arrays.fill(mix, 0f);
+                for (int i = active.size() - 1; i >= 0; i--) {
+                    MixerVoice voice = active.get(i);
+                    if (!voice.render(mix, BLOCK_FRAMES, rate)) {
+                        active.remove(i);
+                        voice.onRemoved();
+                    }
+                }
+                activeCount = active.size();
+                SoundMetrics.activeVoices(activeCount);
+
+                toPcm16(mix, out);
+                // 写入前输出缓冲区已经完全空了，说明混音跟不上（欠载）
+                int available = output.available();
+                if (primed && available >= lineBufferBytes) {
+                    SoundMetrics.mixerUnderrun();
+                } else if (available < lineBufferBytes) {
+                    primed = true;
+                }
+                output.write(out, 0, out.length);
+            }
+        } catch (Exception e) {
+            log.error("Sound mixer stopped: {}", e.getMessage());
+        } finally {
+            for (MixerVoice voice : active) {
+                voice.onRemoved();
+            }
+            active.clear();
+            MixerVoice pending;
+            while ((pending = incoming.poll()) != null) {
+                pending.onRemoved();
+            }
+            activeCount = 0;
+        }
+    }
+
+    private void acceptIncoming() {
+        MixerVoice voice;
+        while ((voice = incoming.poll()) != null) {
+            if (active.size() >= maxVoices) {
+                // 抢占最早开始的发声源
+                MixerVoice stolen = active.remove(0);
+                stolen.onRemoved();
+            }
+            active.add(voice);
+            SoundMetrics.startLatency.record(System.nanoTime() - voice.triggerNanos);
+        }
+    }
+
+    private static void toPcm16(float[] mix, byte[] out) {
+        for (int i = 0; i < mix.length; i++) {
+            float sample = Math.max(-1f, Math.min(1f, mix[i]));
+            int value = (int) (sample * 32767f);
+            out[i * 2] = (byte) value;
+            out[i * 2 + 1] = (byte) (value >> 8);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package io.github.nekosora.api.sound;
+
+/**
+ * 单个音效的触发限制
+ * @param mergeWindowMillis 在此时间内的相同触发合并为一次播放（返回同一个句柄）
+ * @param minIntervalMillis 两次实际播放之间的最短间隔，间隔内的触发被忽略
+ * @param maxInstances 同一音效同时播放的最大数量，超过时停止最早的一个
+ */
+public record SoundThrottle(long mergeWindowMillis, long minIntervalMillis, int maxInstances) {
+    // 默认：一帧（约16ms）内的相同触发合并，最多同时播放 4 个
+    public static final SoundThrottle DEFAULT = new SoundThrottle(16, 0, 4);
+
+    // 不做任何限制
+    public static final SoundThrottle NONE = new SoundThrottle(0, 0, Integer.MAX_VALUE);
+}
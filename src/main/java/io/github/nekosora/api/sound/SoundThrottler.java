@@ -0,0 +1,78 @@
+package io.github.nekosora.api.sound;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按音效路径对触发去重和限流，防止事件风暴时同一个音效被大量重复解码和播放
+ */
+class SoundThrottler {
+    private final Map<String, SoundThrottle> overrides = new ConcurrentHashMap<>();
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private volatile SoundThrottle defaultThrottle = SoundThrottle.DEFAULT;
+
+    /**
+     * 每个音效路径的状态
+     */
+    private static class State {
+        long lastPlayNanos = Long.MIN_VALUE;
+        SoundHandle lastHandle = null;
+        final Deque<SoundHandle> playing = new ArrayDeque<>();
+    }
+
+    void setDefault(SoundThrottle throttle) {
+        this.defaultThrottle = throttle;
+    }
+
+    void setThrottle(String path, SoundThrottle throttle) {
+        if (throttle == null) {
+            overrides.remove(path);
+        } else {
+            overrides.put(path, throttle);
+        }
+    }
+
+    private SoundThrottle throttleFor(String path) {
+        return overrides.getOrDefault(path, defaultThrottle);
+    }
+
+    /**
+     * 检查这次触发是否应该与之前的播放合并；否则登记为一次新的播放
+     * 超过同时播放上限时停止最早的一个
+     * @param handle 新播放使用的句柄
+     * @return 应复用的已有句柄，或登记后的 handle 本身（表示需要真正播放）
+     */
+    SoundHandle admit(Sound sound, SoundHandle handle) {
+        SoundThrottle throttle = throttleFor(sound.getPath());
+        State state = states.computeIfAbsent(sound.getPath(), k -> new State());
+        SoundHandle evicted = null;
+        synchronized (state) {
+            long now = System.nanoTime();
+            if (state.lastHandle != null) {
+                long elapsedMillis = (now - state.lastPlayNanos) / 1_000_000L;
+                if (elapsedMillis < Math.max(throttle.mergeWindowMillis(), throttle.minIntervalMillis())) {
+                    return state.lastHandle;
+                }
+            }
+
+            state.lastPlayNanos = now;
+            state.lastHandle = handle;
+            state.playing.addLast(handle);
+            if (state.playing.size() > throttle.maxInstances()) {
+                evicted = state.playing.pollFirst();
+            }
+        }
+        if (evicted != null) {
+            evicted.stop();
+        }
+
+        handle.completion().thenRun(() -> {
+            synchronized (state) {
+                state.playing.remove(handle);
+            }
+        });
+        return handle;
+    }
+}
@@ -0,0 +1,261 @@
+package io.github.nekosora.api.sound;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 流式播放的发声源（用于较长的音乐/环境音，支持 Ogg Vorbis 和 WAV）
+ * 解码线程分块解码并写入环形缓冲区，混音线程从中读取，内存占用与曲目长度无关
+ */
+class StreamingVoice extends MixerVoice {
+    private static final Logger log = LoggerFactory.getLogger(StreamingVoice.class);
+
+    private static final double BUFFER_SECONDS = 1.0;
+    private static final int CHUNK_BYTES = 16 * 1024;
+
+    private final String path;
+    private final boolean loop;
+    private final float outputRate;
+    private final FloatRingBuffer ring;
+    private volatile Thread decoder;
+    private float[] readBuffer = new float[0];
+    private boolean started = false; // 已经读到过数据（启动时缓冲为空不算欠载）
+
+    private volatile boolean stopped = false;
+    // 以下两个字段的修改都在 ring 的锁内进行，保证跳转请求和解码线程的退出不会互相错过
+    private volatile boolean finished = false; // 解码已结束（非循环播放到结尾）
+    private volatile double seekRequest = -1;
+
+    StreamingVoice(Sound sound, boolean loop, float outputRate) {
+        this.path = sound.getPath();
+        this.loop = loop;
+        this.outputRate = outputRate;
+        this.volume = (float) Math.max(0.0, sound.getVolume());
+        this.balance = (float) Math.max(0.0, Math.min(1.0, sound.getBalance()));
+        this.ring = new FloatRingBuffer((int) (outputRate * BUFFER_SECONDS) * 2);
+
+        this.decoder = newDecoder();
+    }
+
+    private Thread newDecoder() {
+        Thread thread = new Thread(this::decodeLoop, "SoundStream-" + path);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    void startDecoding() {
+        decoder.start();
+    }
+
+    /**
+     * 跳转到指定位置（秒）
+     * 清空缓冲区会推进代数，解码线程手里跳转之前的数据块不会再写入
+     * 非循环的曲目已经解码到结尾时重新启动解码线程；声音已被混音器移除后跳转无效
+     */
+    void seek(double seconds) {
+        synchronized (ring) {
+            if (stopped) {
+                return;
+            }
+            seekRequest = Math.max(0, seconds);
+            ring.clear();
+            if (finished) {
+                finished = false;
+                decoder = newDecoder();
+                decoder.start();
+            }
+        }
+    }
+
+    @Override
+    boolean render(float[] mix, int frames, float outputRate) {
+        if (isFadedOut() || stopped) {
+            return false;
+        }
+
+        int needed = frames * 2;
+        if (readBuffer.length < needed) {
+            readBuffer = new float[needed];
+        }
+        int read = ring.read(readBuffer, 0, needed);
+        if (read == 0 && finished) {
+            return false;
+        }
+        if (read > 0) {
+            started = true;
+        }
+        if (started && read < needed && !finished) {
+            // 解码跟不上播放
+            SoundMetrics.streamUnderrun();
+        }
+
+        float left = leftGain();
+        float right = rightGain();
+        float envelope = envelopeStart();
+        float envelopeStep = (advanceEnvelope(frames, outputRate) - envelope) / frames;
+
+        // 数据不足的部分保持静音（解码跟不上）
+        int readFrames = read / 2;
+        for (int i = 0; i < readFrames; i++) {
+            mix[i * 2] += readBuffer[i * 2] * left * envelope;
+            mix[i * 2 + 1] += readBuffer[i * 2 + 1] * right * envelope;
+            envelope += envelopeStep;
+        }
+        return true;
+    }
+
+    @Override
+    void onRemoved() {
+        super.onRemoved();
+        stopped = true;
+        ring.close();
+        decoder.interrupt();
+    }
+
+    private void decodeLoop() {
+        try {
+            while (true) {
+                double start;
+                int generation;
+                synchronized (ring) {
+                    start = Math.max(0, seekRequest);
+                    seekRequest = -1;
+                    generation = ring.generation();
+                }
+                if (!streamOnce(start, generation)) {
+                    break;
+                }
+                synchronized (ring) {
+                    // 没有新的跳转请求时在锁内结束，之后的 seek 一定能看到 finished
+                    if (stopped || (!loop && seekRequest < 0)) {
+                        finished = true;
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Failed to stream audio {}: {}", path, e.getMessage());
+        }
+        synchronized (ring) {
+            finished = true;
+        }
+    }
+
+    /**
+     * 从指定位置解码一遍整个曲目
+     * @param generation 开始解码时缓冲区的代数，缓冲区被清空后（有新的跳转）立即返回
+     * @return false 表示应停止（已关闭或出错）
+     */
+    private boolean streamOnce(double startSeconds, int generation) throws IOException, InterruptedException {
+        try (AudioInputStream pcm = openPcmStream()) {
+            if (pcm == null) {
+                return false;
+            }
+
+            AudioFormat format = pcm.getFormat();
+            int channels = format.getChannels();
+            int frameSize = format.getFrameSize();
+
+            if (startSeconds > 0) {
+                long skipBytes = (long) (startSeconds * format.getSampleRate()) * frameSize;
+                while (skipBytes > 0) {
+                    long skipped = pcm.skip(skipBytes);
+                    if (skipped <= 0) {
+                        break;
+                    }
+                    skipBytes -= skipped;
+                }
+            }
+
+            // 流式线性重采样到混音器采样率
+            double step = format.getSampleRate() / outputRate;
+            double position = 0;
+            float previousLeft = 0, previousRight = 0;
+
+            byte[] bytes = new byte[CHUNK_BYTES - CHUNK_BYTES % frameSize];
+            float[] source = new float[(bytes.length / frameSize + 1) * 2];
+            float[] output = new float[(int) ((bytes.length / frameSize + 2) / step + 2) * 2];
+
+            int read;
+            while ((read = pcm.readNBytes(bytes, 0, bytes.length)) > 0) {
+                if (stopped) {
+                    return false;
+                }
+                if (seekRequest >= 0) {
+                    // 重新打开并从新位置开始
+                    return true;
+                }
+
+                int frames = read / frameSize;
+                source[0] = previousLeft;
+                source[1] = previousRight;
+                for (int i = 0; i < frames; i++) {
+                    int base = i * frameSize;
+                    float left = readPcm16(bytes, base);
+                    float right = channels > 1 ? readPcm16(bytes, base + 2) : left;
+                    source[(i + 1) * 2] = left;
+                    source[(i + 1) * 2 + 1] = right;
+                }
+
+                int outputFrames = 0;
+                while (position < frames) {
+                    int index = (int) position;
+                    float fraction = (float) (position - index);
+                    int base = index * 2;
+                    output[outputFrames * 2] = source[base] + (source[base + 2] - source[base]) * fraction;
+                    output[outputFrames * 2 + 1] = source[base + 1] + (source[base + 3] - source[base + 1]) * fraction;
+                    outputFrames++;
+                    position += step;
+                }
+                position -= frames;
+                previousLeft = source[frames * 2];
+                previousRight = source[frames * 2 + 1];
+
+                if (!ring.write(output, 0, outputFrames * 2, generation)) {
+                    // 缓冲区被清空说明有新的跳转请求，关闭则停止
+                    return !stopped;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 打开资源并转换为 16 位有符号小端 PCM（Ogg Vorbis 通过 vorbisspi 解码）
+     */
+    private AudioInputStream openPcmStream() throws IOException {
+        InputStream resource = StreamingVoice.class.getClassLoader().getResourceAsStream("audios/" + path);
+        if (resource == null) {
+            log.error("Audio file not found: {}", path);
+            return null;
+        }
+
+        try {
+            AudioInputStream source = AudioSystem.getAudioInputStream(new BufferedInputStream(resource));
+            AudioFormat sourceFormat = source.getFormat();
+            AudioFormat pcmFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED,
+                    sourceFormat.getSampleRate(), 16, sourceFormat.getChannels(),
+                    sourceFormat.getChannels() * 2, sourceFormat.getSampleRate(), false);
+            if (sourceFormat.matches(pcmFormat)) {
+                return source;
+            }
+            return AudioSystem.getAudioInputStream(pcmFormat, source);
+        } catch (Exception e) {
+            resource.close();
+            throw new IOException("Unsupported audio stream: " + path, e);
+        }
+    }
+
+    private static float readPcm16(byte[] bytes, int offset) {
+        return (short) ((bytes[offset] & 0xFF) | (bytes[offset + 1] << 8)) / 32768f;
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.nekosora.api.sound;
+
+/**
+ * 变速不变调（重叠相加 OLA，Hann 窗）
+ * 按 speed 改变时长，音高保持不变；适合音效，不追求音乐级音质
+ */
+public class TimeStretcher {
+    private static final double WINDOW_SECONDS = 0.04; // 40ms 窗口
+
+    /**
+     * @param stereo 立体声交错数据
+     * @param speed 播放速度（2.0 表示时长减半）
+     * @param sampleRate 采样率
+     * @return 时长为原来 1/speed 的立体声交错数据
+     */
+    public static float[] stretch(float[] stereo, double speed, float sampleRate) {
+        int frameCount = stereo.length / 2;
+        int window = Math.max(64, (int) (sampleRate * WINDOW_SECONDS));
+        int synthesisHop = window / 2;
+        double analysisHop = synthesisHop * speed;
+
+        int outputFrames = (int) (frameCount / speed);
+        float[] output = new float[outputFrames * 2];
+        float[] weight = new float[outputFrames];
+        float[] hann = new float[window];
+        for (int i = 0; i < window; i++) {
+            hann[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / (window - 1)));
+        }
+
+        double analysis = 0;
+        for (int synthesis = 0; synthesis < outputFrames; synthesis += synthesisHop) {
+            int source = (int) analysis;
+            for (int i = 0; i < window; i++) {
+                int out = synthesis + i;
+                int in = source + i;
+                if (out >= outputFrames) {
+                    break;
+                }
+                if (in >= frameCount) {
+                    break;
+                }
+                output[out * 2] += stereo[in * 2] * hann[i];
+                output[out * 2 + 1] += stereo[in * 2 + 1] * hann[i];
+                weight[out] += hann[i];
+            }
+            analysis += analysisHop;
+        }
+
+        // 归一化窗口叠加的增益
+        for (int i = 0; i < outputFrames; i++) {
+            if (weight[i] > 1e-3f) {
+                output[i * 2] /= weight[i];
+                output[i * 2 + 1] /= weight[i];
+            }
+        }
+        return output;
+    }
+}
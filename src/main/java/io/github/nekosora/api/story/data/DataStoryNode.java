@@ -0,0 +1,147 @@
+package io.github.nekosora.api.story.data;
+
+import io.github.nekosora.api.achievement.AchievementManager;
+import io.github.nekosora.api.file.FileTransaction;
+import io.github.nekosora.api.story.node.StoryNode;
+import io.github.nekosora.api.story.runtime.StoryRuntime;
+import io.github.nekosora.settings.GameSettings;
+import io.github.nekosora.utils.CrashUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 由 JSON 剧情定义创建的节点
+ * 启动时只有 ID、描述、连接关系和声明的文件，内容（文件等）在第一次执行时才从所属章节加载
+ * 执行完内容后，等待 await 声明的文件事件（没有则不等待），再切换到 advance 指定的节点（默认为 next 中的第一个）
+ */
+public class DataStoryNode extends StoryNode {
+    private static final Logger log = LoggerFactory.getLogger(DataStoryNode.class);
+
+    private final StoryChapter chapter;
+    private final String description;
+
+    DataStoryNode(String id, String description, StoryChapter chapter) {
+        super(id);
+        this.description = description;
+        this.chapter = chapter;
+    }
+
+    @Override
+    public void execute() {
+        super.execute();
+
+        StoryNodeBody body;
+        try {
+            body = chapter.body(getId());
+        } catch (IOException e) {
+            CrashUtils.crash(e);
+            return;
+        }
+        if (!body.files().isEmpty()) {
+            FileTransaction transaction = FileTransaction.in(GameSettings.mainDir);
+            for (StoryNodeBody.FilePayload payload : body.files()) {
+                transaction.write(payload.path(), payload.content());
+            }
+            try {
+                transaction.commit();
+            } catch (IOException e) {
+                CrashUtils.crash(e);
+            }
+        }
+
+        if (body.achievement() != null) {
+            AchievementManager.achievementComplete(body.achievement());
+        }
+
+        proceed(body);
+    }
+
+    /**
+     * 文件已由存档恢复、成就已记录，只重新进入等待
+     */
+    @Override
+    public void resume() {
+        super.resume();
+
+        try {
+            proceed(chapter.body(getId()));
+        } catch (IOException e) {
+            CrashUtils.crash(e);
+        }
+    }
+
+    /**
+     * 等待 await 声明的文件事件后切换到下一个节点，没有下一个节点时停留在这里
+     */
+    private void proceed(StoryNodeBody body) {
+        String nextId = body.advance();
+        if (nextId == null) {
+            List<String> declared = chapter.nextIds(getId());
+            if (declared.isEmpty()) {
+                return;
+            }
+            nextId = declared.getFirst();
+        }
+        StoryNode next = getNextNode(nextId);
+        if (next == null) {
+            log.warn("Story node {} advances to unknown node {}", getId(), nextId);
+            return;
+        }
+
+        if (body.await() != null) {
+            try {
+                StoryRuntime.awaitFileEvent(new File(GameSettings.mainDir, body.await().path()), body.await().type());
+            } catch (InterruptedException e) {
+                // 剧情被停止
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        StoryRuntime.advance(this, next);
+    }
+
+    @Override
+    public void cleanFiles() {
+        List<StoryNodeBody.FilePayload> files;
+        try {
+            files = chapter.body(getId()).files();
+        } catch (IOException e) {
+            log.error("Failed to clean files of {}: {}", getId(), e.getMessage());
+            return;
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+        FileTransaction transaction = FileTransaction.in(GameSettings.mainDir);
+        for (StoryNodeBody.FilePayload payload : files) {
+            transaction.delete(payload.path());
+        }
+        try {
+            transaction.commit();
+        } catch (IOException e) {
+            log.error("Failed to clean files of {}: {}", getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 节点头中声明的文件，存档时遍历所有节点也不会加载章节内容
+     */
+    @Override
+    public Collection<String> getManagedFiles() {
+        return chapter.managedFiles(getId());
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public StoryChapter getChapter() {
+        return chapter;
+    }
+}
@@ -0,0 +1,294 @@
+package io.github.nekosora.api.story.data;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import io.github.nekosora.api.file.FileEventType;
+import io.github.nekosora.utils.Namespace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 一个 JSON 剧情章节
+ * 启动时只扫描文件头（bodies 之前的字段），节点内容在第一次需要时加载并以软引用缓存
+ */
+public class StoryChapter {
+    private static final Logger log = LoggerFactory.getLogger(StoryChapter.class);
+
+    private final String resourcePath;
+    private String id;
+    private String attachTo;
+    private String entry;
+    private final Map<String, NodeHeader> nodes = new LinkedHashMap<>();
+
+    private SoftReference<Map<String, StoryNodeBody>> bodies = new SoftReference<>(null);
+
+    /**
+     * 节点头：描述、后继节点 ID 和节点会写入的文件（存档只需要文件头，不加载内容）
+     */
+    record NodeHeader(String description, List<String> next, List<String> files) {
+    }
+
+    private StoryChapter(String resourcePath) {
+        this.resourcePath = resourcePath;
+    }
+
+    /**
+     * 扫描文件头：读到 "bodies" 字段就停止，不解析节点内容
+     */
+    static StoryChapter scanHeader(String resourcePath) throws IOException {
+        StoryChapter chapter = new StoryChapter(resourcePath);
+        try (JsonReader reader = open(resourcePath)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                switch (name) {
+                    case "chapter" -> chapter.id = reader.nextString();
+                    case "attachTo" -> chapter.attachTo = reader.nextString();
+                    case "entry" -> chapter.entry = reader.nextString();
+                    case "nodes" -> readNodeHeaders(reader, chapter.nodes);
+                    case "bodies" -> {
+                        // 内容在执行时再加载
+                        return chapter.validate();
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+        }
+        return chapter.validate();
+    }
+
+    private StoryChapter validate() throws IOException {
+        if (id == null || entry == null || !nodes.containsKey(entry)) {
+            throw new IOException("Story definition " + resourcePath + " must declare chapter, entry and the entry node before bodies");
+        }
+        return this;
+    }
+
+    private static void readNodeHeaders(JsonReader reader, Map<String, NodeHeader> nodes) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String nodeId = reader.nextName();
+            String description = null;
+            List<String> next = new ArrayList<>();
+            List<String> files = new ArrayList<>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "description" -> description = reader.nextString();
+                    case "next" -> readStrings(reader, next);
+                    case "files" -> readStrings(reader, files);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            nodes.put(nodeId, new NodeHeader(description, List.copyOf(next), List.copyOf(files)));
+        }
+        reader.endObject();
+    }
+
+    private static void readStrings(JsonReader reader, List<String> target) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            target.add(reader.nextString());
+        }
+        reader.endArray();
+    }
+
+    /**
+     * 获取节点内容，第一次访问时加载整个章节的内容
+     * 加载失败不会被缓存，下一次访问会重新读取
+     * @throws IOException 章节内容无法读取或格式错误
+     */
+    StoryNodeBody body(String nodeId) throws IOException {
+        Map<String, StoryNodeBody> loaded;
+        synchronized (this) {
+            loaded = bodies.get();
+            if (loaded == null) {
+                loaded = loadBodies();
+                bodies = new SoftReference<>(loaded);
+            }
+        }
+        return loaded.getOrDefault(nodeId, StoryNodeBody.EMPTY);
+    }
+
+    /**
+     * 节点头中声明的后继节点 ID（按声明顺序）
+     */
+    List<String> nextIds(String nodeId) {
+        NodeHeader header = nodes.get(nodeId);
+        return header != null ? header.next() : List.of();
+    }
+
+    /**
+     * 节点头中声明的、节点会写入的文件（不加载节点内容）
+     */
+    List<String> managedFiles(String nodeId) {
+        NodeHeader header = nodes.get(nodeId);
+        return header != null ? header.files() : List.of();
+    }
+
+    private Map<String, StoryNodeBody> loadBodies() throws IOException {
+        Map<String, StoryNodeBody> result = new HashMap<>();
+        try (JsonReader reader = open(resourcePath)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("bodies")) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String nodeId = reader.nextName();
+                    StoryNodeBody body = readBody(reader);
+                    checkDeclaredFiles(nodeId, body);
+                    result.put(nodeId, body);
+                }
+                reader.endObject();
+            }
+        } catch (IllegalStateException e) {
+            throw new IOException("Malformed story bodies in " + resourcePath + ": " + e.getMessage(), e);
+        }
+        log.debug("Loaded {} story node bodies for chapter {}", result.size(), id);
+        return result;
+    }
+
+    /**
+     * 节点写入的文件应在节点头的 files 中声明，否则不会进入剧情存档
+     */
+    private void checkDeclaredFiles(String nodeId, StoryNodeBody body) {
+        List<String> declared = managedFiles(nodeId);
+        for (StoryNodeBody.FilePayload payload : body.files()) {
+            if (!declared.contains(payload.path())) {
+                log.warn("Story node {} writes {} but does not declare it in its header, it will not be saved", nodeId, payload.path());
+            }
+        }
+    }
+
+    private static StoryNodeBody readBody(JsonReader reader) throws IOException {
+        List<StoryNodeBody.FilePayload> files = new ArrayList<>();
+        Namespace achievement = null;
+        StoryNodeBody.Await await = null;
+        String advance = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "files" -> {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        files.add(readFile(reader));
+                    }
+                    reader.endArray();
+                }
+                case "achievement" -> achievement = readAchievement(reader.nextString());
+                case "await" -> await = readAwait(reader);
+                case "advance" -> advance = reader.nextString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new StoryNodeBody(List.copyOf(files), achievement, await, advance);
+    }
+
+    /**
+     * 只查找已注册的成就，未知的命名空间不进入实例池（节点执行时不完成成就）
+     */
+    private static Namespace readAchievement(String string) throws IOException {
+        Namespace namespace;
+        try {
+            namespace = Namespace.lookup(string);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid story achievement: " + string);
+        }
+        if (namespace == null) {
+            log.warn("Story references unregistered achievement {}, ignoring", string);
+        }
+        return namespace;
+    }
+
+    private static StoryNodeBody.Await readAwait(JsonReader reader) throws IOException {
+        String path = null;
+        String event = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "file" -> path = reader.nextString();
+                case "event" -> event = reader.nextString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (path == null || event == null) {
+            throw new IOException("Story await without file or event");
+        }
+        try {
+            return new StoryNodeBody.Await(path, FileEventType.valueOf(event));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown story await event: " + event);
+        }
+    }
+
+    private static StoryNodeBody.FilePayload readFile(JsonReader reader) throws IOException {
+        String path = null;
+        String content = "";
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "path" -> path = reader.nextString();
+                case "content" -> content = reader.peek() == JsonToken.NULL ? nextNull(reader) : reader.nextString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (path == null) {
+            throw new IOException("Story file payload without path");
+        }
+        return new StoryNodeBody.FilePayload(path, content);
+    }
+
+    private static String nextNull(JsonReader reader) throws IOException {
+        reader.nextNull();
+        return "";
+    }
+
+    private static JsonReader open(String resourcePath) throws IOException {
+        InputStream resource = StoryChapter.class.getClassLoader().getResourceAsStream(resourcePath);
+        if (resource == null) {
+            throw new FileNotFoundException("Story definition not found: " + resourcePath);
+        }
+        return new JsonReader(new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8)));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return 章节入口节点挂载到的已有节点 ID，没有时挂到根节点
+     */
+    public String getAttachTo() {
+        return attachTo;
+    }
+
+    public String getEntry() {
+        return entry;
+    }
+
+    Map<String, NodeHeader> getNodes() {
+        return nodes;
+    }
+
+    public String getResourcePath() {
+        return resourcePath;
+    }
+}
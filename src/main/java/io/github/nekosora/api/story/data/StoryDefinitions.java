@@ -0,0 +1,171 @@
+package io.github.nekosora.api.story.data;
+
+import io.github.nekosora.api.story.node.StoryGraph;
+import io.github.nekosora.api.story.node.StoryNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * JSON 剧情定义（resources/stories/*.json）
+ * 格式：
+ * <pre>
+ * {
+ *   "chapter": "chapter2",
+ *   "attachTo": "chapter1+first_seen",
+ *   "entry": "chapter2",
+ *   "nodes": {
+ *     "chapter2": { "description": "第二章", "next": ["chapter2+door"], "files": ["Key.txt"] },
+ *     "chapter2+door": { "description": "门", "files": ["Door.txt"] }
+ *   },
+ *   "bodies": {
+ *     "chapter2": {
+ *       "files": [ { "path": "Key.txt", "content": "..." } ],
+ *       "await": { "file": "Key.txt", "event": "DELETE_OR_MOVED" },
+ *       "advance": "chapter2+door"
+ *     },
+ *     "chapter2+door": {
+ *       "files": [ { "path": "Door.txt", "content": "..." } ],
+ *       "achievement": "filexe:door"
+ *     }
+ *   }
+ * }
+ * </pre>
+ * 启动时只扫描 bodies 之前的文件头；bodies 必须放在最后，执行到章节中的节点时才会读取
+ * 节点头的 files 列出节点会写入的文件（与 bodies 中的 files 对应），剧情存档只根据它保存和恢复文件，不需要读取 bodies
+ * 节点执行完后等待 await 的文件事件（FileEventType 的名称，可省略），再切换到 advance（可省略，默认为 next 中的第一个）；
+ * 没有后继节点时剧情停在该节点
+ */
+public class StoryDefinitions {
+    private static final Logger log = LoggerFactory.getLogger(StoryDefinitions.class);
+    private static final String STORY_DIRECTORY = "stories";
+
+    private static final Map<String, StoryChapter> chapters = new LinkedHashMap<>();
+
+    /**
+     * 扫描所有剧情定义，创建节点并挂载到 root 下的已有节点上
+     * @return 加载的章节数量
+     */
+    public static synchronized int loadAll(StoryNode root) {
+        List<String> resources = listDefinitions();
+        if (resources.isEmpty()) {
+            return 0;
+        }
+
+        // 已有的手写节点（按 ID 查找挂载点）
+        StoryGraph existing = StoryGraph.compile(root);
+        Map<String, DataStoryNode> dataNodes = new HashMap<>();
+        List<StoryChapter> loaded = new ArrayList<>();
+
+        for (String resource : resources) {
+            try {
+                StoryChapter chapter = StoryChapter.scanHeader(resource);
+                if (chapters.containsKey(chapter.getId())) {
+                    log.warn("Duplicate story chapter {} in {}, skipping", chapter.getId(), resource);
+                    continue;
+                }
+                for (Map.Entry<String, StoryChapter.NodeHeader> entry : chapter.getNodes().entrySet()) {
+                    String nodeId = entry.getKey();
+                    if (dataNodes.containsKey(nodeId) || existing.indexOf(nodeId) >= 0) {
+                        log.warn("Story node {} in {} is already defined, skipping", nodeId, resource);
+                        continue;
+                    }
+                    dataNodes.put(nodeId, new DataStoryNode(nodeId, entry.getValue().description(), chapter));
+                }
+                chapters.put(chapter.getId(), chapter);
+                loaded.add(chapter);
+            } catch (IOException | IllegalStateException e) {
+                log.error("Failed to scan story definition {}: {}", resource, e.getMessage());
+            }
+        }
+
+        // 所有章节的节点都创建后再连接，允许跨章节引用
+        for (StoryChapter chapter : loaded) {
+            for (Map.Entry<String, StoryChapter.NodeHeader> entry : chapter.getNodes().entrySet()) {
+                DataStoryNode node = dataNodes.get(entry.getKey());
+                if (node == null || node.getChapter() != chapter) {
+                    continue;
+                }
+                for (String nextId : entry.getValue().next()) {
+                    StoryNode next = resolve(nextId, dataNodes, existing);
+                    if (next == null) {
+                        log.warn("Story node {} references unknown node {}", entry.getKey(), nextId);
+                    }
+                    node.addNext(next);
+                }
+            }
+
+            StoryNode parent = chapter.getAttachTo() != null ? resolve(chapter.getAttachTo(), dataNodes, existing) : root;
+            if (parent == null) {
+                log.warn("Story chapter {} attaches to unknown node {}", chapter.getId(), chapter.getAttachTo());
+                continue;
+            }
+            parent.addNext(dataNodes.get(chapter.getEntry()));
+        }
+
+        log.info("Indexed {} story chapters ({} nodes)", loaded.size(), dataNodes.size());
+        return loaded.size();
+    }
+
+    private static StoryNode resolve(String nodeId, Map<String, DataStoryNode> dataNodes, StoryGraph existing) {
+        StoryNode node = dataNodes.get(nodeId);
+        if (node != null) {
+            return node;
+        }
+        int index = existing.indexOf(nodeId);
+        return index >= 0 ? existing.getNode(index) : null;
+    }
+
+    public static synchronized StoryChapter getChapter(String id) {
+        return chapters.get(id);
+    }
+
+    /**
+     * 列出 resources/stories 下的所有 .json（支持目录和 jar 两种运行方式）
+     */
+    private static List<String> listDefinitions() {
+        URL url = StoryDefinitions.class.getClassLoader().getResource(STORY_DIRECTORY);
+        if (url == null) {
+            return List.of();
+        }
+
+        List<String> resources = new ArrayList<>();
+        try {
+            if (url.getProtocol().equals("jar")) {
+                JarURLConnection connection = (JarURLConnection) url.openConnection();
+                connection.setUseCaches(false);
+                try (JarFile jar = connection.getJarFile()) {
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        if (name.startsWith(STORY_DIRECTORY + "/") && name.endsWith(".json")) {
+                            resources.add(name);
+                        }
+                    }
+                }
+            } else {
+                try (Stream<Path> files = Files.list(Path.of(url.toURI()))) {
+                    files.map(path -> path.getFileName().toString())
+                            .filter(name -> name.endsWith(".json"))
+                            .forEach(name -> resources.add(STORY_DIRECTORY + "/" + name));
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            log.error("Failed to list story definitions: {}", e.getMessage());
+        }
+
+        // 按文件名排序，保证加载顺序稳定
+        Collections.sort(resources);
+        return resources;
+    }
+}
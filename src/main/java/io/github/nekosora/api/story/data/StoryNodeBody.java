@@ -0,0 +1,31 @@
+package io.github.nekosora.api.story.data;
+
+import io.github.nekosora.api.file.FileEventType;
+import io.github.nekosora.utils.Namespace;
+
+import java.util.List;
+
+/**
+ * 数据驱动剧情节点的内容（执行时才加载）
+ * @param files 执行时写入 mainDir 的文件
+ * @param achievement 执行时完成的成就，没有则为 null
+ * @param await 进入下一个节点之前等待的文件事件，没有则为 null（立即进入）
+ * @param advance 下一个节点的 ID，为 null 时使用节点头 next 中的第一个
+ */
+public record StoryNodeBody(List<FilePayload> files, Namespace achievement, Await await, String advance) {
+    static final StoryNodeBody EMPTY = new StoryNodeBody(List.of(), null, null, null);
+
+    /**
+     * @param path 相对于 mainDir 的路径
+     * @param content 文件内容
+     */
+    public record FilePayload(String path, String content) {
+    }
+
+    /**
+     * @param path 相对于 mainDir 的路径
+     * @param type 等待的事件类型
+     */
+    public record Await(String path, FileEventType type) {
+    }
+}
@@ -0,0 +1,363 @@
+package io.github.nekosora.api.story.node;
+
+import java.util.*;
+
+/**
+ * 编译后的剧情图（不可变）
+ * 节点按从根节点开始的广度优先顺序编号为 int，邻接关系用 CSR 数组保存；
+ * 编译时一次性计算从根节点的可达性、强连通分量（迭代 Tarjan）和深度，
+ * 渲染也是迭代的，整体开销与图的大小成线性关系
+ */
+public final class StoryGraph {
+    // printPlotView 的深度限制
+    private static final int PLOT_VIEW_MAX_DEPTH = 50;
+
+    private final StoryNode[] nodes;
+    private final Map<String, Integer> idIndex;
+    private final int[] offsets; // 节点 i 的后继为 targets[offsets[i] .. offsets[i + 1])
+    private final int[] targets;
+    private final BitSet reachable;
+    private final int[] depth; // 从根节点的最短深度，不可达为 -1
+    private final int[] component;
+    private final int componentCount;
+    private final BitSet cyclic; // 所在强连通分量包含环的节点
+    private final int maxDepth;
+
+    private StoryGraph(StoryNode[] nodes, Map<String, Integer> idIndex, int[] offsets, int[] targets, int reachableCount) {
+        this.nodes = nodes;
+        this.idIndex = idIndex;
+        this.offsets = offsets;
+        this.targets = targets;
+
+        this.reachable = new BitSet(nodes.length);
+        this.reachable.set(0, reachableCount);
+        this.depth = computeDepth();
+        int deepest = 0;
+        for (int d : depth) {
+            deepest = Math.max(deepest, d);
+        }
+        this.maxDepth = deepest;
+
+        this.component = new int[nodes.length];
+        this.cyclic = new BitSet(nodes.length);
+        this.componentCount = computeComponents();
+    }
+
+    public static StoryGraph compile(StoryNode root) {
+        return compile(root, List.of());
+    }
+
+    /**
+     * 编译剧情图
+     * @param root 根节点（编号为 0）
+     * @param extraNodes 其它已注册的节点，从根节点不可达的会被标记为不可达
+     */
+    public static StoryGraph compile(StoryNode root, Collection<? extends StoryNode> extraNodes) {
+        List<StoryNode> nodes = new ArrayList<>();
+        Map<String, Integer> idIndex = new HashMap<>();
+        int[] offsets = new int[16];
+        int[] targets = new int[16];
+        int edgeCount = 0;
+
+        nodes.add(root);
+        idIndex.put(root.getId(), 0);
+        Iterator<? extends StoryNode> extra = extraNodes.iterator();
+        int reachableCount = -1;
+
+        // 广度优先：按编号顺序处理节点，CSR 数组可以顺序填充
+        for (int current = 0; ; current++) {
+            if (current == nodes.size()) {
+                if (reachableCount < 0) {
+                    reachableCount = nodes.size();
+                }
+                // 从根节点可达的节点处理完后，继续处理其它已注册的节点
+                StoryNode next = null;
+                while (extra.hasNext() && next == null) {
+                    StoryNode candidate = extra.next();
+                    if (!idIndex.containsKey(candidate.getId())) {
+                        next = candidate;
+                    }
+                }
+                if (next == null) {
+                    break;
+                }
+                idIndex.put(next.getId(), nodes.size());
+                nodes.add(next);
+            }
+
+            if (current + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            for (StoryNode child : nodes.get(current).getNextNodes()) {
+                Integer childId = idIndex.get(child.getId());
+                if (childId == null) {
+                    childId = nodes.size();
+                    idIndex.put(child.getId(), childId);
+                    nodes.add(child);
+                }
+                if (edgeCount == targets.length) {
+                    targets = Arrays.copyOf(targets, targets.length * 2);
+                }
+                targets[edgeCount++] = childId;
+            }
+            offsets[current + 1] = edgeCount;
+        }
+
+        int nodeCount = nodes.size();
+        return new StoryGraph(nodes.toArray(new StoryNode[0]), Collections.unmodifiableMap(idIndex),
+                Arrays.copyOf(offsets, nodeCount + 1), Arrays.copyOf(targets, edgeCount), reachableCount);
+    }
+
+    private int[] computeDepth() {
+        int[] result = new int[nodes.length];
+        Arrays.fill(result, -1);
+        int[] queue = new int[nodes.length];
+        int head = 0;
+        int tail = 0;
+        result[0] = 0;
+        queue[tail++] = 0;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                int next = targets[e];
+                if (result[next] < 0) {
+                    result[next] = result[node] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 迭代 Tarjan 算法计算强连通分量
+     * @return 分量数量
+     */
+    private int computeComponents() {
+        int n = nodes.length;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] sccStack = new int[n];
+        int[] callStack = new int[n];
+        int[] edgeCursor = new int[n];
+        Arrays.fill(index, -1);
+
+        int counter = 0;
+        int components = 0;
+        int sccTop = 0;
+
+        for (int start = 0; start < n; start++) {
+            if (index[start] >= 0) {
+                continue;
+            }
+
+            int callTop = 0;
+            index[start] = low[start] = counter++;
+            sccStack[sccTop++] = start;
+            onStack[start] = true;
+            callStack[callTop] = start;
+            edgeCursor[callTop++] = offsets[start];
+
+            while (callTop > 0) {
+                int node = callStack[callTop - 1];
+                if (edgeCursor[callTop - 1] < offsets[node + 1]) {
+                    int next = targets[edgeCursor[callTop - 1]++];
+                    if (index[next] < 0) {
+                        index[next] = low[next] = counter++;
+                        sccStack[sccTop++] = next;
+                        onStack[next] = true;
+                        callStack[callTop] = next;
+                        edgeCursor[callTop++] = offsets[next];
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+
+                callTop--;
+                if (callTop > 0) {
+                    int parent = callStack[callTop - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+                if (low[node] == index[node]) {
+                    int size = 0;
+                    int member;
+                    do {
+                        member = sccStack[--sccTop];
+                        onStack[member] = false;
+                        component[member] = components;
+                        size++;
+                    } while (member != node);
+
+                    if (size > 1 || hasSelfLoop(node)) {
+                        for (int i = sccTop; i < sccTop + size; i++) {
+                            cyclic.set(sccStack[i]);
+                        }
+                    }
+                    components++;
+                }
+            }
+        }
+        return components;
+    }
+
+    private boolean hasSelfLoop(int node) {
+        for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+            if (targets[e] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @return 节点编号，不存在时返回 -1
+     */
+    public int indexOf(String nodeId) {
+        Integer index = idIndex.get(nodeId);
+        return index != null ? index : -1;
+    }
+
+    public StoryNode getNode(int index) {
+        return nodes[index];
+    }
+
+    public int successorCount(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    public int successor(int index, int position) {
+        return targets[offsets[index] + position];
+    }
+
+    public boolean isReachable(int index) {
+        return reachable.get(index);
+    }
+
+    public int reachableCount() {
+        return reachable.cardinality();
+    }
+
+    /**
+     * @return 从根节点的最短深度，不可达时返回 -1
+     */
+    public int depthOf(int index) {
+        return depth[index];
+    }
+
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    public int componentOf(int index) {
+        return component[index];
+    }
+
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * 节点是否处在环中（可以回到自身）
+     */
+    public boolean isInCycle(int index) {
+        return cyclic.get(index);
+    }
+
+    public String summary() {
+        return String.format("%d nodes (%d reachable), %d edges, %d components (%d nodes in cycles), max depth %d",
+                size(), reachableCount(), edgeCount(), componentCount, cyclic.cardinality(), maxDepth);
+    }
+
+    /**
+     * 树形视图（与原 printTree 输出相同）
+     */
+    public String renderTree() {
+        return render(" - ", "", " 🔁", Integer.MAX_VALUE);
+    }
+
+    /**
+     * 剧情视图（与原 printPlotView 输出相同）
+     */
+    public String renderPlotView() {
+        return render(" [", "]", " ⤴", PLOT_VIEW_MAX_DEPTH);
+    }
+
+    /**
+     * 迭代渲染：显式栈代替递归，onPath 标记当前路径上的祖先用于检测循环
+     */
+    private String render(String descriptionPrefix, String descriptionSuffix, String cycleMarker, int depthLimit) {
+        StringBuilder out = new StringBuilder();
+        boolean[] onPath = new boolean[nodes.length];
+        String[] displays = new String[nodes.length];
+
+        Deque<Frame> stack = new ArrayDeque<>();
+        emit(out, onPath, stack, displays, descriptionPrefix, descriptionSuffix, cycleMarker, depthLimit,
+                0, "", true, 0);
+
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            int end = offsets[frame.node + 1];
+            if (frame.cursor == end) {
+                stack.pop();
+                onPath[frame.node] = false;
+                continue;
+            }
+            int child = targets[frame.cursor++];
+            emit(out, onPath, stack, displays, descriptionPrefix, descriptionSuffix, cycleMarker, depthLimit,
+                    child, frame.childPrefix, frame.cursor == end, frame.depth + 1);
+        }
+        return out.toString();
+    }
+
+    private void emit(StringBuilder out, boolean[] onPath, Deque<Frame> stack, String[] displays,
+                      String descriptionPrefix, String descriptionSuffix, String cycleMarker, int depthLimit,
+                      int node, String prefix, boolean isTail, int nodeDepth) {
+        String display = displays[node];
+        if (display == null) {
+            display = nodes[node].getId();
+            String description = nodes[node].getDescription();
+            if (description != null && !description.trim().isEmpty()) {
+                display += descriptionPrefix + description + descriptionSuffix;
+            }
+            displays[node] = display;
+        }
+
+        out.append(prefix).append(isTail ? "└── " : "├── ").append(display);
+        if (onPath[node]) {
+            out.append(cycleMarker).append('\n');
+            return;
+        }
+        if (nodeDepth > depthLimit) {
+            out.append(" ... (深度限制)").append('\n');
+            return;
+        }
+        out.append('\n');
+
+        onPath[node] = true;
+        stack.push(new Frame(node, offsets[node], prefix + (isTail ? "    " : "│   "), nodeDepth));
+    }
+
+    private static class Frame {
+        final int node;
+        int cursor;
+        final String childPrefix;
+        final int depth;
+
+        Frame(int node, int cursor, String childPrefix, int depth) {
+            this.node = node;
+            this.cursor = cursor;
+            this.childPrefix = childPrefix;
+            this.depth = depth;
+        }
+    }
+}
@@ -2,12 +2,16 @@ package io.github.nekosora.api.story.node;
 
 import io.github.nekosora.context.GameContext;
 
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class StoryNode {
+    private static final List<StoryNodeListener> listeners = new CopyOnWriteArrayList<>();
+
     private final String id;
     private final Map<String, StoryNode> nextStoryNodes = new ConcurrentHashMap<>();
 
@@ -30,11 +34,41 @@ public abstract class StoryNode {
     }
 
     public void execute() {
-        GameContext.singleplayerCurrentNode = this;
+        GameContext.singleplayerCurrentNode.set(this);
+        for (StoryNodeListener listener : listeners) {
+            listener.onNodeReached(this);
+        }
+    }
+
+    /**
+     * 从存档恢复到该节点时代替 execute 调用
+     * 文件已由存档恢复，不能重复执行写文件等副作用；默认只进入节点，
+     * 有等待或后续切换的节点应重写，重新进入等待
+     */
+    public void resume() {
+        GameContext.singleplayerCurrentNode.set(this);
+        for (StoryNodeListener listener : listeners) {
+            listener.onNodeReached(this);
+        }
+    }
+
+    public static void addListener(StoryNodeListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(StoryNodeListener listener) {
+        listeners.remove(listener);
     }
 
     public void cleanFiles() {}
 
+    /**
+     * 该节点会写入的文件（相对于 mainDir 的路径，使用 / 分隔），剧情存档只保存和恢复这些文件
+     */
+    public Collection<String> getManagedFiles() {
+        return List.of();
+    }
+
     public void addNext(StoryNode node) {
         if (node == null) return;
         nextStoryNodes.put(node.getId(), node);
@@ -48,73 +82,15 @@ public abstract class StoryNode {
         return nextStoryNodes.get(id);
     }
 
-    public void printTree() {
-        printTree("", true, new HashSet<>());
+    public Collection<StoryNode> getNextNodes() {
+        return Collections.unmodifiableCollection(nextStoryNodes.values());
     }
 
-    private void printTree(String prefix, boolean isTail, Set<String> visited) {
-        String symbol = isTail ? "└── " : "├── ";
-
-        // 构建显示内容：ID + 描述（如果有）
-        String display = id;
-        String description = getDescription();
-        if (description != null && !description.trim().isEmpty()) {
-            display += " - " + description;
-        }
-
-        // 检测循环
-        if (visited.contains(id)) {
-            System.out.println(prefix + symbol + display + " 🔁");
-            return;
-        }
-
-        visited.add(id);
-        System.out.println(prefix + symbol + display);
-
-        int count = nextStoryNodes.size();
-        int i = 0;
-        for (StoryNode node : nextStoryNodes.values()) {
-            boolean isChildTail = (++i == count);
-            String newPrefix = prefix + (isTail ? "    " : "│   ");
-            node.printTree(newPrefix, isChildTail, new HashSet<>(visited));
-        }
+    public void printTree() {
+        System.out.print(StoryGraph.compile(this).renderTree());
     }
 
     public void printPlotView() {
-        printPlotView("", true, new HashSet<>(), 0);
-    }
-
-    private void printPlotView(String prefix, boolean isTail, Set<String> visited, int depth) {
-        String symbol = isTail ? "└── " : "├── ";
-
-        // 构建显示内容
-        String display = id;
-        String description = getDescription();
-        if (description != null && !description.trim().isEmpty()) {
-            display += " [" + description + "]";
-        }
-
-        // 检测循环
-        if (visited.contains(id)) {
-            System.out.println(prefix + symbol + display + " ⤴");
-            return;
-        }
-
-        // 防止栈溢出
-        if (depth > 50) {
-            System.out.println(prefix + symbol + display + " ... (深度限制)");
-            return;
-        }
-
-        visited.add(id);
-        System.out.println(prefix + symbol + display);
-
-        int nodeCount = nextStoryNodes.size();
-        int i = 0;
-        for (StoryNode node : nextStoryNodes.values()) {
-            boolean isChildTail = (++i == nodeCount);
-            String newPrefix = prefix + (isTail ? "    " : "│   ");
-            node.printPlotView(newPrefix, isChildTail, new HashSet<>(visited), depth + 1);
-        }
+        System.out.print(StoryGraph.compile(this).renderPlotView());
     }
 }
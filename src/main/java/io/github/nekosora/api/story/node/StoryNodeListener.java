@@ -0,0 +1,8 @@
+package io.github.nekosora.api.story.node;
+
+/**
+ * 剧情节点监听器：任意节点开始执行时调用
+ */
+public interface StoryNodeListener {
+    void onNodeReached(StoryNode node);
+}
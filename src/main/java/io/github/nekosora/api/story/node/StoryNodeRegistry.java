@@ -4,4 +4,21 @@ import io.github.nekosora.api.story.stories.RootNode;
 
 public class StoryNodeRegistry {
     public static final StoryNode ROOT = new RootNode("总根节点");
+
+    private static volatile StoryGraph graph;
+
+    /**
+     * 把当前从 ROOT 可达的剧情图编译为不可变的 StoryGraph
+     */
+    public static StoryGraph compile() {
+        graph = StoryGraph.compile(ROOT);
+        return graph;
+    }
+
+    /**
+     * @return 最近一次编译的剧情图，尚未编译时返回 null
+     */
+    public static StoryGraph getGraph() {
+        return graph;
+    }
 }
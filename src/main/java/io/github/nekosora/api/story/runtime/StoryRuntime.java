@@ -0,0 +1,159 @@
+package io.github.nekosora.api.story.runtime;
+
+import io.github.nekosora.api.file.FileEventCatcher;
+import io.github.nekosora.api.file.FileEventType;
+import io.github.nekosora.api.story.node.StoryNode;
+import io.github.nekosora.context.GameContext;
+import io.github.nekosora.utils.CrashUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 剧情运行时：剧情在虚拟线程上执行，不占用文件监听/分发线程
+ * 节点可以在剧情线程中等待文件事件或定时器（虚拟线程挂起时不占用平台线程），
+ * 节点切换通过对 GameContext.singleplayerCurrentNode 的 CAS 完成；
+ * 切换后的节点由运行循环在当前节点的 execute 返回之后再执行（蹦床），剧情再长调用栈也不会增长
+ */
+public class StoryRuntime {
+    private static final Logger log = LoggerFactory.getLogger(StoryRuntime.class);
+
+    private static final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("Story-", 0).factory());
+    private static final ThreadLocal<Boolean> storyThread = ThreadLocal.withInitial(() -> false);
+    // 当前剧情线程上等待执行的下一个节点
+    private static final ThreadLocal<StoryNode> nextNode = new ThreadLocal<>();
+
+    /**
+     * 在新的剧情线程上从 node 开始执行，立即返回
+     * @return 剧情执行结束（包括异常结束）时完成
+     */
+    public static CompletableFuture<Void> start(StoryNode node) {
+        return CompletableFuture.runAsync(() -> run(node, false), executor);
+    }
+
+    /**
+     * 在新的剧情线程上先调用 restore 读取存档（恢复文件等 I/O 都在剧情线程上进行），
+     * 得到存档节点时从该节点恢复（调用 resume），否则从 node 开始执行，立即返回
+     * @param restore 返回存档时的节点，没有存档时返回 null
+     * @return 剧情执行结束（包括异常结束）时完成
+     */
+    public static CompletableFuture<Void> startOrResume(StoryNode node, Supplier<StoryNode> restore) {
+        return CompletableFuture.runAsync(() -> {
+            StoryNode resumed = restore.get();
+            if (resumed != null) {
+                run(resumed, true);
+            } else {
+                run(node, false);
+            }
+        }, executor);
+    }
+
+    /**
+     * 运行循环：执行节点，execute 返回后再执行它切换到的下一个节点
+     * @param resumed 第一个节点是否从存档恢复（调用 resume 而不是 execute）
+     */
+    private static void run(StoryNode node, boolean resumed) {
+        storyThread.set(true);
+        try {
+            if (resumed) {
+                node.resume();
+            } else {
+                node.execute();
+            }
+            StoryNode current;
+            while ((current = nextNode.get()) != null) {
+                nextNode.remove();
+                current.execute();
+            }
+        } catch (Throwable e) {
+            if (!isInterruption(e)) {
+                CrashUtils.crash(e);
+            }
+        } finally {
+            nextNode.remove();
+            storyThread.remove();
+        }
+    }
+
+    /**
+     * 从 from 切换到 to
+     * 在剧情线程上调用时，to 在当前节点的 execute 返回后由运行循环执行；在其它线程上调用时在新的剧情线程上执行
+     * @return 当前节点已不是 from（被其它切换抢先）时返回 false，不执行 to
+     */
+    public static boolean advance(StoryNode from, StoryNode to) {
+        if (!GameContext.singleplayerCurrentNode.compareAndSet(from, to)) {
+            log.warn("Story transition {} -> {} skipped: current node changed", from.getId(), to.getId());
+            return false;
+        }
+        if (storyThread.get()) {
+            nextNode.set(to);
+        } else {
+            start(to);
+        }
+        return true;
+    }
+
+    /**
+     * 文件发生指定事件时完成（不阻塞，可用于状态机式的节点）
+     * future 的值为 FileEventCatcher 回调的 data 数组
+     */
+    public static CompletableFuture<Object[]> onFileEvent(File file, FileEventType type) {
+        CompletableFuture<Object[]> future = new CompletableFuture<>();
+        FileEventCatcher catcher = new FileEventCatcher(file, future::complete, type);
+        future.whenComplete((data, e) -> catcher.stop());
+        catcher.start();
+        return future;
+    }
+
+    /**
+     * 在剧情线程中等待文件事件（只挂起虚拟线程）
+     * @return FileEventCatcher 回调的 data 数组
+     */
+    public static Object[] awaitFileEvent(File file, FileEventType type) throws InterruptedException {
+        checkStoryThread();
+        CompletableFuture<Object[]> future = onFileEvent(file, type);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * 在剧情线程中等待一段时间
+     */
+    public static void sleep(Duration duration) throws InterruptedException {
+        checkStoryThread();
+        Thread.sleep(duration);
+    }
+
+    public static boolean isStoryThread() {
+        return storyThread.get();
+    }
+
+    private static void checkStoryThread() {
+        if (!storyThread.get()) {
+            throw new IllegalStateException("Story awaits must run on a story thread (use StoryRuntime.start)");
+        }
+    }
+
+    private static boolean isInterruption(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
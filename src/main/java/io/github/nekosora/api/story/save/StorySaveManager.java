@@ -0,0 +1,332 @@
+package io.github.nekosora.api.story.save;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import io.github.nekosora.api.file.GameFileWriter;
+import io.github.nekosora.api.story.node.StoryGraph;
+import io.github.nekosora.api.story.node.StoryNode;
+import io.github.nekosora.api.story.node.StoryNodeRegistry;
+import io.github.nekosora.context.GameContext;
+import io.github.nekosora.settings.GameSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 剧情存档
+ * 保存当前剧情节点 ID 和 mainDir 中剧情管理的文件（剧情节点通过 getManagedFiles 声明的文件，玩家自己的文件不会被存档）：
+ * 文件内容按 SHA-256 存为 saveDir/story/blobs 下的内容寻址对象（相同内容只存一份），
+ * manifest.json 记录节点 ID 和 路径 -> 对象 的映射；
+ * 增量保存：大小和修改时间没变的文件直接沿用上次的对象，不读取也不哈希，已存在的对象不重复写入；
+ * 恢复时校验对象内容的 SHA-256，并删除存档时不存在的剧情文件
+ */
+public class StorySaveManager {
+    private static final Logger log = LoggerFactory.getLogger(StorySaveManager.class);
+    private static final int MANIFEST_VERSION = 1;
+    // 对象名是内容的 SHA-256（64 位小写十六进制）
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}");
+
+    private static final File storyDir = new File(GameSettings.saveDir, "story");
+    private static final File blobDir = new File(storyDir, "blobs");
+    private static final File manifestFile = new File(storyDir, "manifest.json");
+
+    /**
+     * manifest 中的一个文件
+     * @param path 相对于 mainDir 的路径（使用 / 分隔）
+     */
+    record FileEntry(String path, long size, long lastModified, String blob) {
+    }
+
+    /**
+     * 存档内容
+     */
+    record Manifest(String nodeId, List<FileEntry> files) {
+    }
+
+    /**
+     * 保存当前剧情节点和剧情文件，没有正在进行的剧情时不保存
+     * @return 是否保存了存档
+     */
+    public static synchronized boolean save() throws IOException {
+        StoryNode current = GameContext.singleplayerCurrentNode.get();
+        if (current == null) {
+            return false;
+        }
+        long start = System.nanoTime();
+
+        Map<String, FileEntry> previous = new HashMap<>();
+        Manifest old = readManifest();
+        if (old != null) {
+            for (FileEntry entry : old.files()) {
+                previous.put(entry.path(), entry);
+            }
+        }
+
+        Path root = GameSettings.mainDir.toPath().toAbsolutePath().normalize();
+        List<FileEntry> entries = new ArrayList<>();
+        int written = 0;
+        for (Path file : listManagedFiles(root, StoryNodeRegistry.getGraph())) {
+            String relative = root.relativize(file).toString().replace(File.separatorChar, '/');
+            long size = Files.size(file);
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+            FileEntry known = previous.get(relative);
+            if (known != null && known.size() == size && known.lastModified() == lastModified
+                    && blobFile(known.blob()).exists()) {
+                entries.add(known);
+                continue;
+            }
+
+            byte[] content = Files.readAllBytes(file);
+            String blob = sha256(content);
+            if (writeBlob(blob, content)) {
+                written++;
+            }
+            entries.add(new FileEntry(relative, size, lastModified, blob));
+        }
+
+        writeManifest(new Manifest(current.getId(), entries));
+        pruneBlobs(entries);
+        log.info("Story saved at node {} ({} files, {} new blobs) in {} ms",
+                current.getId(), entries.size(), written, (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * 恢复剧情文件，并在剧情图中查找存档时的节点
+     * @param graph 剧情图，为 null（尚未编译）时不恢复
+     * @return 存档时的节点，没有存档或节点已不存在时返回 null
+     */
+    public static synchronized StoryNode restore(StoryGraph graph) throws IOException {
+        Manifest manifest = readManifest();
+        if (manifest == null || graph == null) {
+            return null;
+        }
+
+        int index = graph.indexOf(manifest.nodeId());
+        if (index < 0) {
+            log.warn("Saved story node {} no longer exists, ignoring story save", manifest.nodeId());
+            return null;
+        }
+
+        Path root = GameSettings.mainDir.toPath().toAbsolutePath().normalize();
+        Set<String> saved = new HashSet<>();
+        int restored = 0;
+        for (FileEntry entry : manifest.files()) {
+            // 与 FileTransaction 一样：只恢复 mainDir 之内的路径，manifest 被改过时不会写到别处
+            Path targetPath = root.resolve(entry.path()).normalize();
+            if (!targetPath.startsWith(root) || targetPath.equals(root)) {
+                log.warn("Story save entry {} escapes the main directory, skipping it", entry.path());
+                continue;
+            }
+            saved.add(root.relativize(targetPath).toString().replace(File.separatorChar, '/'));
+            File target = targetPath.toFile();
+            File blob = blobFile(entry.blob());
+            if (!blob.exists()) {
+                log.warn("Missing story blob {} for {}", entry.blob(), entry.path());
+                continue;
+            }
+            // 大小相同时再比较内容，已一致的文件不重写
+            if (target.isFile() && target.length() == entry.size()
+                    && sha256(Files.readAllBytes(target.toPath())).equals(entry.blob())) {
+                continue;
+            }
+            byte[] content = Files.readAllBytes(blob.toPath());
+            if (!sha256(content).equals(entry.blob())) {
+                log.warn("Story blob {} for {} is corrupt, not restoring it", entry.blob(), entry.path());
+                continue;
+            }
+            File parent = target.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            GameFileWriter.writeBytes(target, content);
+            restored++;
+        }
+
+        // 存档时还不存在的剧情文件（例如之后的节点写入的）
+        int deleted = 0;
+        for (Path file : listManagedFiles(root, graph)) {
+            String relative = root.relativize(file).toString().replace(File.separatorChar, '/');
+            if (!saved.contains(relative) && GameFileWriter.delete(file.toFile())) {
+                deleted++;
+            }
+        }
+
+        log.info("Story restored at node {} ({} files rewritten, {} deleted)", manifest.nodeId(), restored, deleted);
+        return graph.getNode(index);
+    }
+
+    public static boolean hasSave() {
+        return manifestFile.isFile();
+    }
+
+    public static synchronized void deleteSave() throws IOException {
+        Files.deleteIfExists(manifestFile.toPath());
+        pruneBlobs(List.of());
+    }
+
+    /**
+     * 剧情图中各节点声明的、当前存在于 mainDir 中的文件
+     */
+    private static List<Path> listManagedFiles(Path root, StoryGraph graph) {
+        if (graph == null || !Files.isDirectory(root)) {
+            return List.of();
+        }
+        Set<Path> files = new TreeSet<>();
+        for (int i = 0; i < graph.size(); i++) {
+            for (String path : graph.getNode(i).getManagedFiles()) {
+                Path file = root.resolve(path).normalize();
+                if (file.startsWith(root) && Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        return List.copyOf(files);
+    }
+
+    private static File blobFile(String blob) {
+        return new File(new File(blobDir, blob.substring(0, 2)), blob);
+    }
+
+    /**
+     * @return 新写入时返回 true，对象已存在时返回 false
+     */
+    private static boolean writeBlob(String blob, byte[] content) throws IOException {
+        File file = blobFile(blob);
+        if (file.exists()) {
+            return false;
+        }
+        file.getParentFile().mkdirs();
+        File temp = new File(file.getParentFile(), blob + ".tmp");
+        Files.write(temp.toPath(), content);
+        moveAtomically(temp, file);
+        return true;
+    }
+
+    /**
+     * 删除当前 manifest 不再引用的对象
+     */
+    private static void pruneBlobs(List<FileEntry> entries) throws IOException {
+        if (!blobDir.isDirectory()) {
+            return;
+        }
+        Set<String> referenced = new HashSet<>();
+        for (FileEntry entry : entries) {
+            referenced.add(entry.blob());
+        }
+        try (Stream<Path> files = Files.walk(blobDir.toPath())) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                if (!referenced.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static void writeManifest(Manifest manifest) throws IOException {
+        storyDir.mkdirs();
+        File temp = new File(storyDir, manifestFile.getName() + ".tmp");
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)))) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("version").value(MANIFEST_VERSION);
+            writer.name("node").value(manifest.nodeId());
+            writer.name("files");
+            writer.beginArray();
+            for (FileEntry entry : manifest.files()) {
+                writer.beginObject();
+                writer.name("path").value(entry.path());
+                writer.name("size").value(entry.size());
+                writer.name("lastModified").value(entry.lastModified());
+                writer.name("blob").value(entry.blob());
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+        moveAtomically(temp, manifestFile);
+    }
+
+    private static Manifest readManifest() {
+        if (!manifestFile.isFile()) {
+            return null;
+        }
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8))) {
+            String nodeId = null;
+            List<FileEntry> files = new ArrayList<>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "node" -> nodeId = reader.nextString();
+                    case "files" -> {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            files.add(readEntry(reader));
+                        }
+                        reader.endArray();
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return nodeId != null ? new Manifest(nodeId, files) : null;
+        } catch (IOException | IllegalStateException e) {
+            log.error("Failed to read story save manifest: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static FileEntry readEntry(JsonReader reader) throws IOException {
+        String path = null;
+        String blob = null;
+        long size = -1;
+        long lastModified = -1;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "path" -> path = reader.nextString();
+                case "size" -> size = reader.nextLong();
+                case "lastModified" -> lastModified = reader.nextLong();
+                case "blob" -> blob = reader.nextString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (path == null || blob == null) {
+            throw new IOException("Story save entry without path or blob");
+        }
+        if (!BLOB_NAME.matcher(blob).matches()) {
+            throw new IOException("Invalid story blob name for " + path + ": " + blob);
+        }
+        return new FileEntry(path, size, lastModified, blob);
+    }
+
+    private static void moveAtomically(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package io.github.nekosora.api.story.stories;
 import io.github.nekosora.api.story.node.NodeIDs;
 import io.github.nekosora.api.story.node.NodeNotFoundError;
 import io.github.nekosora.api.story.node.StoryNode;
+import io.github.nekosora.api.story.runtime.StoryRuntime;
 
 public class RootNode extends StoryNode {
     public RootNode(String id) {
@@ -15,9 +16,15 @@ public class RootNode extends StoryNode {
         if (getNextNode(NodeIDs.CHAPTER1.getId()) == null) throw new NodeNotFoundError("Chapter1 node not found, please addNext instead");
 
         StoryNode chapter1 = getNextNode(NodeIDs.CHAPTER1.getId());
-        chapter1.execute();
+        StoryRuntime.advance(this, chapter1);
 
         // 顺序执行
         // TODO: 添加更多剧情
     }
+
+    @Override
+    public void resume() {
+        // 没有副作用，重新执行即可
+        execute();
+    }
 }
@@ -1,7 +1,9 @@
 package io.github.nekosora.api.story.stories.chapter1;
 
+import io.github.nekosora.api.file.FileTransaction;
 import io.github.nekosora.api.story.node.NodeIDs;
 import io.github.nekosora.api.story.node.StoryNode;
+import io.github.nekosora.api.story.runtime.StoryRuntime;
 import io.github.nekosora.settings.GameSettings;
 import io.github.nekosora.utils.CrashUtils;
 import org.slf4j.Logger;
@@ -9,7 +11,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 
 public class Chapter1FirstSeenNode extends StoryNode {
     private static final Logger log = LoggerFactory.getLogger(Chapter1FirstSeenNode.class);
@@ -25,24 +29,47 @@ public class Chapter1FirstSeenNode extends StoryNode {
         super.execute();
 
         try {
-            if (!FIRST_SEEN.exists()) {
-                // TODO: 完成剧情
-                if (!FIRST_SEEN.createNewFile()) {
-                    throw new IOException("FileXE cannot create file: " + FIRST_SEEN.getAbsolutePath());
-                }
-                Files.writeString(FIRST_SEEN.toPath(), "1");
-            } else {
-                Files.writeString(FIRST_SEEN.toPath(), "");
-            }
+            // TODO: 完成剧情
+            FileTransaction.in(GameSettings.mainDir)
+                    .write(FIRST_SEEN.getName(), FIRST_SEEN.exists() ? "" : "1")
+                    .commit();
         } catch (IOException e) {
             CrashUtils.crash(e);
+            return;
         }
+        advanceToNext();
     }
 
     @Override
-    public void cleanFiles() {
-        FIRST_SEEN.delete();
+    public void resume() {
+        // FirstSeen.txt 已由存档恢复，不再重写
+        super.resume();
+        advanceToNext();
+    }
+
+    /**
+     * 进入挂在这里的后续章节（JSON 章节通过 attachTo 挂载），有多个时按 ID 取第一个
+     */
+    private void advanceToNext() {
+        getNextNodes().stream()
+                .min(Comparator.comparing(StoryNode::getId))
+                .ifPresent(next -> StoryRuntime.advance(this, next));
+    }
+
+    @Override
+    public Collection<String> getManagedFiles() {
+        return List.of(FIRST_SEEN.getName());
+    }
 
+    @Override
+    public void cleanFiles() {
+        try {
+            FileTransaction.in(GameSettings.mainDir)
+                    .delete(FIRST_SEEN.getName())
+                    .commit();
+        } catch (IOException e) {
+            log.error("Failed to clean files: {}", e.getMessage());
+        }
     }
 
     @Override
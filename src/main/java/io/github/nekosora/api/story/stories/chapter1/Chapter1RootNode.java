@@ -3,6 +3,7 @@ package io.github.nekosora.api.story.stories.chapter1;
 import io.github.nekosora.api.story.node.NodeIDs;
 import io.github.nekosora.api.story.node.NodeNotFoundError;
 import io.github.nekosora.api.story.node.StoryNode;
+import io.github.nekosora.api.story.runtime.StoryRuntime;
 
 public class Chapter1RootNode extends StoryNode {
     public Chapter1RootNode() {
@@ -15,6 +16,12 @@ public class Chapter1RootNode extends StoryNode {
         if (getNextNode(NodeIDs.CHAPTER1_FIRST_SEEN.getId()) == null) throw new NodeNotFoundError("Chapter1FirstSeen node not found, please addNext instead");
 
         StoryNode firstSeen = getNextNode(NodeIDs.CHAPTER1_FIRST_SEEN.getId());
-        firstSeen.execute();
+        StoryRuntime.advance(this, firstSeen);
+    }
+
+    @Override
+    public void resume() {
+        // 没有副作用，重新执行即可
+        execute();
     }
 }
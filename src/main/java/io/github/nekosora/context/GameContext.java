@@ -2,7 +2,10 @@ package io.github.nekosora.context;
 
 import io.github.nekosora.api.story.node.StoryNode;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 public class GameContext {
     public static volatile boolean isExiting = false;
-    public static volatile StoryNode singleplayerCurrentNode = null;
+    // 当前单人剧情节点，每次节点切换都是原子操作
+    public static final AtomicReference<StoryNode> singleplayerCurrentNode = new AtomicReference<>();
 }
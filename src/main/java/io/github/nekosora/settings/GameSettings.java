@@ -6,6 +6,10 @@ public class GameSettings {
     public static File mainDir = new File("./FileXE");
     public static final File saveDir = createSaveDir();
     public static final File achievementSaveFile = new File(saveDir, "achievements.json");
+    // 文件写入完成检测窗口（毫秒）：大小和修改时间在此期间不变才触发 CREATED/MODIFIED，<=0 表示立即触发
+    public static volatile long fileWriteSettleMillis = 200;
+    // 不超过此大小（字节）的非空文件视为一次写完，不等待稳定（例如菜单控件、游戏自己写的小文件）
+    public static volatile long fileWriteSettleMinBytes = 64 * 1024;
 
     private static File createSaveDir() {
         File dir = switch (System.getProperty("os.name").toLowerCase()) {
@@ -1,5 +1,7 @@
 package io.github.nekosora.utils;
 
+import io.github.nekosora.api.file.BatchFileWriter;
+import io.github.nekosora.api.file.GameFileWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,101 +18,66 @@ public class GameMenuUtils {
     private static final Set<File> filesToKeep = Collections.synchronizedSet(new HashSet<>());
 
     /**
-     * 初始化游戏主菜单目录结构
-     * 可以随时调用，如果目录已存在则不会重复创建
+     * 菜单结构：相对路径 -> 文件内容，目录由路径自动创建
      */
-    public static boolean initializeGameMenu(File root) throws IOException {
-        // 创建目录结构
-        File settingsDir = createDirectory(root, "Settings");
-        File generalOptions = createDirectory(settingsDir, "General");
-        File aboutDir = createDirectory(root, "About");
-        File playDir = createDirectory(root, "Play");
-
-        if (settingsDir == null || generalOptions == null || aboutDir == null || playDir == null) {
-            return false;
-        }
+    private static final Map<String, String> MENU_FILES = menuFiles();
 
-        // 创建文件
-        Map<File, String> filesToCreate = Map.of(
-                new File(root, "FileXE - Main Menu"), "This is FileXE's main menu!",
-                new File(generalOptions, "NothingHere..."), "I said, nothing here.",
-                new File(aboutDir, "Authors.about"), """
+    private static Map<String, String> menuFiles() {
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("FileXE - Main Menu", "This is FileXE's main menu!");
+        files.put("Settings/General/NothingHere...", "I said, nothing here.");
+        files.put("About/Authors.about", """
                 Authors:
                     - NekoSora
                     - CYsonHab
-                """,
-                new File(aboutDir, "GameVersion.about"), """
+                """);
+        files.put("About/GameVersion.about", """
                 FileXE Version 0.01-Beta
                 
                 2025 © Copyright NekoSora & CYsonHab, TeamFileXE.
-                """,
-                new File(playDir, "Singleplayer.off"), "Start singleplayer game.",
-                new File(playDir, "Multiplayer.off"), "Start Multiplayer game."
-        );
-
-        for (Map.Entry<File, String> entry : filesToCreate.entrySet()) {
-            if (!createFileWithContent(entry.getKey(), entry.getValue())) {
-                return false;
-            }
-        }
+                """);
+        files.put("Play/Singleplayer.off", "Start singleplayer game.");
+        files.put("Play/Multiplayer.off", "Start Multiplayer game.");
+        files.put("ExitGame.off", "Would you want to exit game?");
+        return Collections.unmodifiableMap(files);
+    }
 
-        // 处理退出游戏文件
+    /**
+     * 初始化游戏主菜单目录结构
+     * 可以随时调用，内容已经一致的文件不会重写
+     */
+    public static boolean initializeGameMenu(File root) {
+        // 处理退出游戏文件：如果存在.on文件，删除它
         File exitGameOn = new File(root, "ExitGame.on");
-        File exitGameOff = new File(root, "ExitGame.off");
-
-        // 如果存在.on文件，删除它
-        if (exitGameOn.exists()) {
-            if (!exitGameOn.delete()) {
-                log.warn("Could not delete {}", exitGameOn.getAbsolutePath());
-            }
+        if (exitGameOn.exists() && !GameFileWriter.delete(exitGameOn)) {
+            log.warn("Could not delete {}", exitGameOn.getAbsolutePath());
         }
 
-        // 创建.off文件（如果不存在）
-        if (!exitGameOff.exists()) {
-            if (!createFileWithContent(exitGameOff, "Would you want to exit game?")) {
-                return false;
-            }
+        Map<File, String> filesToCreate = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : MENU_FILES.entrySet()) {
+            filesToCreate.put(new File(root, entry.getKey()), entry.getValue());
         }
 
-        log.info("Game menu initialized successfully at: {}", root.getAbsolutePath());
-        return true;
+        try {
+            int written = BatchFileWriter.writeAll(filesToCreate);
+            log.info("Game menu initialized successfully at: {} ({} files written)", root.getAbsolutePath(), written);
+            return true;
+        } catch (IOException e) {
+            log.error("Error initializing game menu at: {} - {}", root.getAbsolutePath(), e.getMessage());
+            return false;
+        }
     }
 
     /**
      * 检查游戏菜单是否已初始化
      */
     public static boolean isGameMenuInitialized(File root) {
-        File[] requiredDirs = {
-                new File(root, "Settings"),
-                new File(root, "Settings/General"),
-                new File(root, "About"),
-                new File(root, "Play")
-        };
-
-        File[] requiredFiles = {
-                new File(root, "FileXE - Main Menu"),
-                new File(root, "Settings/General/NothingHere..."),
-                new File(root, "About/Authors.about"),
-                new File(root, "About/GameVersion.about"),
-                new File(root, "Play/Singleplayer.off"),
-                new File(root, "Play/Multiplayer.off"),
-                new File(root, "ExitGame.off")
-        };
-
-        // 检查所有必需目录是否存在
-        for (File dir : requiredDirs) {
-            if (!dir.exists() || !dir.isDirectory()) {
-                return false;
-            }
-        }
-
-        // 检查所有必需文件是否存在
-        for (File file : requiredFiles) {
-            if (!file.exists() || !file.isFile()) {
+        // 检查所有必需文件（及其所在目录）是否存在
+        for (String path : MENU_FILES.keySet()) {
+            if (!new File(root, path).isFile()) {
                 return false;
             }
         }
-
         return true;
     }
 
@@ -121,14 +88,7 @@ public class GameMenuUtils {
         boolean success = true;
 
         // 定义要删除的文件和目录（不包括root）
-        List<File> itemsToDelete = Arrays.asList(
-                new File(root, "Settings"),
-                new File(root, "About"),
-                new File(root, "Play"),
-                new File(root, "FileXE - Main Menu"),
-                new File(root, "ExitGame.on"),
-                new File(root, "ExitGame.off")
-        );
+        List<File> itemsToDelete = menuItems(root);
 
         for (File item : itemsToDelete) {
             if (item.exists()) {
@@ -149,6 +109,20 @@ public class GameMenuUtils {
         return success;
     }
 
+    /**
+     * 菜单占用的顶层文件和目录
+     */
+    private static List<File> menuItems(File root) {
+        return Arrays.asList(
+                new File(root, "Settings"),
+                new File(root, "About"),
+                new File(root, "Play"),
+                new File(root, "FileXE - Main Menu"),
+                new File(root, "ExitGame.on"),
+                new File(root, "ExitGame.off")
+        );
+    }
+
     // 以下方法保持原有功能，但不再自动调用删除逻辑
 
     // 标记文件/目录为需要删除
@@ -233,27 +207,4 @@ public class GameMenuUtils {
         }
         Files.delete(dir.toPath());
     }
-
-    private static File createDirectory(File parent, String dirName) {
-        File dir = new File(parent, dirName);
-        if (!dir.exists() && !dir.mkdirs()) {
-            log.error("Error creating directory: {}", dir.getAbsolutePath());
-            return null;
-        }
-        return dir;
-    }
-
-    private static boolean createFileWithContent(File file, String content) {
-        try {
-            if (!file.exists() && !file.createNewFile()) {
-                log.error("Error creating file: {}", file.getAbsolutePath());
-                return false;
-            }
-            Files.writeString(file.toPath(), content);
-            return true;
-        } catch (IOException e) {
-            log.error("Error writing to file: {} - {}", file.getAbsolutePath(), e.getMessage());
-            return false;
-        }
-    }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package io.github.nekosora.utils;
 
 import io.github.nekosora.api.achievement.AchievementManager;
+import io.github.nekosora.api.file.FileHasher;
 import io.github.nekosora.api.file.widgets.FileButton;
 import io.github.nekosora.api.sound.SoundEngine;
+import io.github.nekosora.api.story.save.StorySaveManager;
 import io.github.nekosora.context.GameContext;
 import io.github.nekosora.settings.GameSettings;
 import org.slf4j.Logger;
@@ -27,6 +29,13 @@ public class GameUtils {
                 }
             }
 
+            try {
+                // 在清理菜单之前保存剧情进度
+                StorySaveManager.save();
+            } catch (Exception e) {
+                log.error("Error on exiting game: {}", String.valueOf(e));
+            }
+
             try {
                 GameMenuUtils.cleanupGameMenu(GameSettings.mainDir);
                 GameSettings.mainDir.delete();
@@ -40,6 +49,12 @@ public class GameUtils {
                 log.error("Error on exiting game: {}", String.valueOf(e));
             }
 
+            try {
+                FileHasher.shutdown();
+            } catch (Exception e) {
+                log.error("Error on exiting game: {}", String.valueOf(e));
+            }
+
             try {
                 SoundEngine.shutdown();
             } catch (Exception e) {
@@ -1,28 +1,195 @@
 package io.github.nekosora.utils;
 
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 命名空间（name:path）
+ * 通过 of / fromString / intern 获取的实例是规范化的：同一个命名空间只有一个对象，
+ * 预先计算哈希值，比较时直接比较引用，并分配一个从 0 开始的连续 ID，便于用数组代替 Map
+ * 只查询不登记时使用 lookup：不存在的命名空间不会进入实例池
+ * 来自存档、剧情数据等外部输入的字符串一律用 lookup 解析，未登记的命名空间按未知处理
+ */
+public final class Namespace {
+    // 规范化实例池，键为 "name:path"
+    private static final ConcurrentHashMap<String, Namespace> pool = new ConcurrentHashMap<>();
+    // 同一批实例按 name -> path 分两级索引，按两段查找时不需要拼接字符串
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<String, Namespace>> byName = new ConcurrentHashMap<>();
+    private static final Object idLock = new Object();
+    private static volatile Namespace[] byId = new Namespace[64];
+    private static volatile int count = 0;
+
+    private final String name;
+    private final String path;
+    private final String string;
+    private final int hash;
+    private final int id; // 未规范化的实例为 -1
+
+    /**
+     * 创建一个未规范化的实例（不分配 ID），一般应使用 {@link #of(String, String)}
+     */
+    public Namespace(String name, String path) {
+        this(name, path, -1);
+    }
+
+    private Namespace(String name, String path, int id) {
+        this.name = Objects.requireNonNull(name);
+        this.path = Objects.requireNonNull(path);
+        this.string = name + ":" + path;
+        this.hash = 31 * name.hashCode() + path.hashCode();
+        this.id = id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    /**
+     * 规范化实例的 ID，未规范化的实例返回 -1
+     */
+    public int id() {
+        return id;
+    }
+
+    public boolean isInterned() {
+        return id >= 0;
+    }
+
+    /**
+     * 获取规范化实例（不存在时创建）
+     */
+    public static Namespace of(String name, String path) {
+        Namespace interned = lookup(name, path);
+        return interned != null ? interned : intern(name, path);
+    }
+
+    /**
+     * 查找已存在的规范化实例，不存在时返回 null（不会创建）
+     */
+    public static Namespace lookup(String name, String path) {
+        ConcurrentHashMap<String, Namespace> paths = byName.get(name);
+        return paths != null ? paths.get(path) : null;
+    }
+
+    /**
+     * 获取与该命名空间相等的规范化实例（不存在时创建）
+     */
+    public Namespace intern() {
+        if (id >= 0) {
+            return this;
+        }
+        Namespace interned = lookup(name, path);
+        return interned != null ? interned : intern(name, path);
+    }
+
+    /**
+     * 查找与该命名空间相等的规范化实例，不存在时返回 null（不会创建）
+     */
+    public Namespace lookup() {
+        return id >= 0 ? this : lookup(name, path);
+    }
+
+    private static Namespace intern(String name, String path) {
+        synchronized (idLock) {
+            String key = name + ":" + path;
+            Namespace existing = pool.get(key);
+            if (existing != null) {
+                return existing;
+            }
+
+            int id = count;
+            Namespace namespace = new Namespace(name, path, id);
+            Namespace[] table = byId;
+            if (id == table.length) {
+                table = Arrays.copyOf(table, table.length * 2);
+            }
+            table[id] = namespace;
+            byId = table;
+            count = id + 1;
+            byName.computeIfAbsent(name, k -> new ConcurrentHashMap<>()).put(path, namespace);
+            pool.put(key, namespace);
+            return namespace;
+        }
+    }
+
+    /**
+     * 根据 ID 获取规范化实例
+     * @return 实例，ID 不存在时返回 null
+     */
+    public static Namespace byId(int id) {
+        if (id < 0 || id >= count) {
+            return null;
+        }
+        return byId[id];
+    }
+
+    /**
+     * 已分配的 ID 数量（ID 范围为 [0, count)）
+     */
+    public static int count() {
+        return count;
+    }
 
-public record Namespace(String name, String path) {
     @Override
-    public String toString () {
-        return name + ":" + path;
+    public String toString() {
+        return string;
     }
 
     @Override
     public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        Namespace namespace = (Namespace) o;
-        return Objects.equals(name, namespace.name) && Objects.equals(path, namespace.path);
+        if (this == o) return true;
+        if (!(o instanceof Namespace namespace)) return false;
+        // 两个规范化实例只有引用相同时才相等
+        if (id >= 0 && namespace.id >= 0) return false;
+        return hash == namespace.hash && name.equals(namespace.name) && path.equals(namespace.path);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, path);
+        return hash;
     }
 
+    /**
+     * 解析 "name:path" 并返回规范化实例（已存在时不分配内存）
+     * 用于登记命名空间；读取存档、剧情数据等外部输入时应使用 {@link #lookup(String)}
+     */
     public static Namespace fromString(String string) {
-        String[] split = string.split(":");
-        if (split.length < 2) throw new IllegalArgumentException("Invalid namespace string");
-        return new Namespace(split[0], split[1]);
+        Namespace interned = pool.get(string);
+        if (interned != null) {
+            return interned;
+        }
+
+        int colon = colonOf(string);
+        return intern(string.substring(0, colon), pathOf(string, colon));
+    }
+
+    /**
+     * 解析 "name:path" 并查找已存在的规范化实例，不存在时返回 null（不会创建，实例池和 ID 表不会增长）
+     */
+    public static Namespace lookup(String string) {
+        Namespace interned = pool.get(string);
+        if (interned != null) {
+            return interned;
+        }
+
+        int colon = colonOf(string);
+        return lookup(string.substring(0, colon), pathOf(string, colon));
+    }
+
+    private static int colonOf(String string) {
+        int colon = string.indexOf(':');
+        if (colon < 0 || colon == string.length() - 1) throw new IllegalArgumentException("Invalid namespace string");
+        return colon;
+    }
+
+    private static String pathOf(String string, int colon) {
+        int end = string.indexOf(':', colon + 1);
+        // 与原来的 split(":") 一致：忽略第二个冒号之后的内容
+        return string.substring(colon + 1, end < 0 ? string.length() : end);
     }
 }
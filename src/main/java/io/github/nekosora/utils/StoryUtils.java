@@ -1,16 +1,30 @@
 package io.github.nekosora.utils;
 
+import io.github.nekosora.api.story.data.StoryDefinitions;
+import io.github.nekosora.api.story.node.StoryGraph;
 import io.github.nekosora.api.story.node.StoryNode;
 import io.github.nekosora.api.story.node.StoryNodeRegistry;
 import io.github.nekosora.api.story.stories.chapter1.Chapter1FirstSeenNode;
 import io.github.nekosora.api.story.stories.chapter1.Chapter1RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class StoryUtils {
+    private static final Logger log = LoggerFactory.getLogger(StoryUtils.class);
+
     public static void init() {
         StoryNode chapter1 = initChapter1();
 
         StoryNodeRegistry.ROOT.addNext(chapter1);
-        StoryNodeRegistry.ROOT.printPlotView();
+        // resources/stories 下的 JSON 章节：启动时只扫描文件头
+        StoryDefinitions.loadAll(StoryNodeRegistry.ROOT);
+
+        // 启动时只输出摘要，完整剧情视图仅在 debug 级别输出
+        StoryGraph graph = StoryNodeRegistry.compile();
+        log.info("Story graph compiled: {}", graph.summary());
+        if (log.isDebugEnabled()) {
+            log.debug("Story plot view:\n{}", graph.renderPlotView());
+        }
     }
 
     private static StoryNode initChapter1() {
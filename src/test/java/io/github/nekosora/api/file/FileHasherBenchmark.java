@@ -0,0 +1,105 @@
+package io.github.nekosora.api.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Random;
+
+/**
+ * 每个文件事件的哈希开销：旧实现（每次新建 MessageDigest 和 8KB 数组，String.format 转十六进制）
+ * 与 FileHasher（池化的摘要状态和缓冲区，两个 long 的指纹）对比
+ * 无界面运行：java -cp target/classes:target/test-classes io.github.nekosora.api.file.FileHasherBenchmark
+ */
+public class FileHasherBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        File small = createFile(64);                 // 菜单控件大小的文件
+        File medium = createFile(64 * 1024);         // 普通文本文件
+        File large = createFile(4 * 1024 * 1024);    // 较大的文件
+
+        System.out.println("file       legacy-sha256      FAST               SHA256");
+        for (File file : new File[]{small, medium, large}) {
+            int iterations = (int) Math.max(50, Math.min(200_000, 400_000_000L / Math.max(1, file.length())));
+            long legacy = measure(iterations, () -> legacyHash(file));
+            FileHasher.setAlgorithm(FileHasher.Algorithm.FAST);
+            long fast = measure(iterations, () -> FileHasher.hash(file));
+            FileHasher.setAlgorithm(FileHasher.Algorithm.SHA256);
+            long sha = measure(iterations, () -> FileHasher.hash(file));
+            FileHasher.setAlgorithm(FileHasher.Algorithm.FAST);
+            System.out.printf("%-10s %12d ns/op  %12d ns/op  %12d ns/op%n", size(file), legacy, fast, sha);
+        }
+
+        // 不含文件 I/O，只比较哈希本身（分配、摘要和十六进制转换）
+        byte[] content = new byte[64];
+        new Random(1).nextBytes(content);
+        long legacyBytes = measure(1_000_000, () -> legacyHash(content));
+        long fastBytes = measure(1_000_000, () -> FileHasher.hash(content));
+        System.out.printf("in-memory 64 B: legacy %d ns/op, FAST %d ns/op%n", legacyBytes, fastBytes);
+    }
+
+    private static long measure(int iterations, Runnable hash) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (int i = 0; i < iterations; i++) {
+                hash.run();
+            }
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            hash.run();
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    /**
+     * 重构前 DirectoryWatcher.calculateQuickHash 的做法
+     */
+    private static String legacyHash(File file) {
+        try (FileInputStream input = new FileInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return toHex(digest.digest());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 重构前 FileEventCatcher.calculateHash 的做法（直接摘要整个数组）
+     */
+    private static String legacyHash(byte[] content) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String toHex(byte[] digest) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static File createFile(int size) throws IOException {
+        File file = File.createTempFile("filexe-hash", ".bin");
+        file.deleteOnExit();
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private static String size(File file) {
+        long length = file.length();
+        return length >= 1024 * 1024 ? length / (1024 * 1024) + " MB" : length >= 1024 ? length / 1024 + " KB" : length + " B";
+    }
+}
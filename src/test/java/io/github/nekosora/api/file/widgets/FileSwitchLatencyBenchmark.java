@@ -0,0 +1,104 @@
+package io.github.nekosora.api.file.widgets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * FileSwitch 在同目录大量文件改动下的切换延迟（从重命名到回调）
+ * 结果取决于磁盘和调度，不在默认测试中运行
+ * 无界面运行：java -cp target/classes:target/test-classes io.github.nekosora.api.file.widgets.FileSwitchLatencyBenchmark
+ */
+public class FileSwitchLatencyBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(FileSwitchLatencyBenchmark.class);
+
+    private static final int TOGGLES = 100;
+    private static final int CHURN_FILES = 16;
+    private static final int CHURN_SIZE = 32 * 1024;
+    // 控件事件走高优先级通道，即使目录很忙 p99 也应远低于这个值
+    private static final long P99_BUDGET_MILLIS = 250;
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("filexe-switch");
+        File off = directory.resolve("Singleplayer.off").toFile();
+        Files.writeString(off.toPath(), "Start singleplayer game.");
+
+        BlockingQueue<Long> callbacks = new LinkedBlockingQueue<>();
+        FileSwitch fileSwitch = new FileSwitch(on -> callbacks.add(System.nanoTime()), off);
+        fileSwitch.register();
+
+        Thread churn = Thread.ofPlatform().daemon().start(() -> writeChurn(directory));
+        try {
+            // 预热：让监听器和后台写入都进入稳定状态
+            Thread.sleep(300);
+
+            long[] latencies = new long[TOGGLES];
+            File current = off;
+            for (int i = 0; i < TOGGLES; i++) {
+                File next = directory.resolve(current.getName().endsWith(".off") ? "Singleplayer.on" : "Singleplayer.off").toFile();
+                long start = System.nanoTime();
+                Files.move(current.toPath(), next.toPath());
+                Long end = callbacks.poll(5, TimeUnit.SECONDS);
+                if (end == null) {
+                    log.error("No callback for toggle {}", i);
+                    return;
+                }
+                latencies[i] = end - start;
+                current = next;
+                // 等待上一次重命名的检测窗口过去
+                Thread.sleep(20);
+            }
+
+            Arrays.sort(latencies);
+            long p50 = TimeUnit.NANOSECONDS.toMillis(latencies[TOGGLES / 2]);
+            long p99 = TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.ceil(TOGGLES * 0.99) - 1]);
+            log.info("FileSwitch toggle latency under churn: p50={} ms, p99={} ms", p50, p99);
+            if (p99 > P99_BUDGET_MILLIS) {
+                log.warn("p99 toggle latency {} ms exceeds the {} ms budget", p99, P99_BUDGET_MILLIS);
+            }
+        } finally {
+            churn.interrupt();
+            churn.join();
+            fileSwitch.unregister();
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * 在同一个目录中不停地改写一批普通文件
+     */
+    private static void writeChurn(Path directory) {
+        byte[] content = new byte[CHURN_SIZE];
+        Random random = new Random(1);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                for (int i = 0; i < CHURN_FILES; i++) {
+                    random.nextBytes(content);
+                    Files.write(directory.resolve("churn-" + i + ".dat"), content);
+                }
+                Thread.sleep(1);
+            }
+        } catch (IOException | InterruptedException e) {
+            // 测量结束
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.nekosora.api.sound;
+
+/**
+ * 每个发声源的变速 DSP 开销：按混音器的块大小调用 PcmVoice.render，统计每秒输出帧数
+ * （实时播放只需要 44100 帧/秒，结果除以它就是单核能同时承载的发声源数量）
+ * 无界面运行：java -cp target/classes:target/test-classes io.github.nekosora.api.sound.ResamplerBenchmark
+ */
+public class ResamplerBenchmark {
+    private static final float SAMPLE_RATE = 44100f;
+    private static final int SOURCE_SECONDS = 10;
+    private static final int BLOCK_FRAMES = 512;
+    private static final double SPEED = 1.25;
+
+    public static void main(String[] args) {
+        PcmBuffer pcm = sineBuffer();
+        float[] mix = new float[BLOCK_FRAMES * 2];
+
+        for (Resampler resampler : Resampler.values()) {
+            Sound sound = new Sound("benchmark", SPEED, 1.0, 0.5);
+            // 预热
+            for (int i = 0; i < 5; i++) {
+                renderAll(new PcmVoice(pcm, sound, resampler), mix);
+            }
+            long frames = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                frames += renderAll(new PcmVoice(pcm, sound, resampler), mix);
+            }
+            report(resampler.name() + " render", frames, System.nanoTime() - start);
+        }
+
+        // 变速不变调：整段拉伸的开销（每个速度只计算一次后缓存）
+        float[] stereo = pcm.getStereoSamples();
+        for (int i = 0; i < 3; i++) {
+            TimeStretcher.stretch(stereo, SPEED, SAMPLE_RATE);
+        }
+        long start = System.nanoTime();
+        int rounds = 10;
+        for (int i = 0; i < rounds; i++) {
+            TimeStretcher.stretch(stereo, SPEED, SAMPLE_RATE);
+        }
+        report("TimeStretcher", (long) rounds * stereo.length / 2, System.nanoTime() - start);
+    }
+
+    private static long renderAll(PcmVoice voice, float[] mix) {
+        long frames = 0;
+        while (voice.render(mix, BLOCK_FRAMES, SAMPLE_RATE)) {
+            frames += BLOCK_FRAMES;
+        }
+        return frames;
+    }
+
+    private static void report(String name, long frames, long nanos) {
+        double perSecond = frames / (nanos / 1e9);
+        System.out.printf("%-16s %,14.0f frames/s per voice (%.0fx realtime)%n", name, perSecond, perSecond / SAMPLE_RATE);
+    }
+
+    private static PcmBuffer sineBuffer() {
+        int frames = (int) (SAMPLE_RATE * SOURCE_SECONDS);
+        float[] stereo = new float[frames * 2];
+        for (int i = 0; i < frames; i++) {
+            float value = (float) Math.sin(2 * Math.PI * 440 * i / SAMPLE_RATE) * 0.5f;
+            stereo[i * 2] = value;
+            stereo[i * 2 + 1] = value;
+        }
+        return PcmBuffer.fromStereoSamples(stereo, SAMPLE_RATE);
+    }
+}
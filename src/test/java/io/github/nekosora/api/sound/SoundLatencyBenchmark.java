@@ -0,0 +1,59 @@
+package io.github.nekosora.api.sound;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对不发声的 NullOutput 同时播放 N 个音效，输出 SoundMetrics 的各项延迟百分位
+ * 无界面运行：java -cp target/classes:target/test-classes io.github.nekosora.api.sound.SoundLatencyBenchmark [N] [轮数]
+ */
+public class SoundLatencyBenchmark {
+    public static void main(String[] args) throws Exception {
+        int sounds = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        SoundEngine.setOutput(new NullOutput(true));
+        SoundEngine.setDefaultThrottle(SoundThrottle.NONE);
+
+        for (int round = 1; round <= rounds; round++) {
+            SoundMetrics.reset();
+            // 第一轮包含解码（缓存未命中），之后的轮次只有排队和混音
+            List<CompletableFuture<Void>> completions = burst(sounds);
+            CompletableFuture.allOf(completions.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+            System.out.printf("round %d (%d concurrent sounds): %s%n", round, sounds, SoundMetrics.report());
+        }
+
+        SoundEngine.shutdown();
+        System.exit(0);
+    }
+
+    /**
+     * 从 N 个线程同时触发播放
+     */
+    private static List<CompletableFuture<Void>> burst(int sounds) throws InterruptedException {
+        List<CompletableFuture<Void>> completions = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < sounds; i++) {
+            CompletableFuture<Void> completion = new CompletableFuture<>();
+            completions.add(completion);
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    SoundEngine.play(Sounds.ACHIEVEMENT_COMPLETED).completion()
+                            .whenComplete((ignored, e) -> completion.complete(null));
+                } catch (InterruptedException e) {
+                    completion.complete(null);
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return completions;
+    }
+}